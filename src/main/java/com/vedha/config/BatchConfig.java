@@ -1,10 +1,44 @@
 package com.vedha.config;
 
 import com.vedha.entity.OrganizationEntity;
+import com.vedha.listener.BatchMetricsListener;
 import com.vedha.listener.CustomJobListener;
 import com.vedha.listener.CustomStepListener;
-import com.vedha.repository.FileRepository;
+import com.vedha.listener.DirectoryFileListener;
+import com.vedha.partition.ByteRangeResource;
+import com.vedha.partition.CsvByteRangePartitioner;
+import com.vedha.partition.DatabasePartitionHandler;
+import com.vedha.partition.DirectoryPartitioner;
+import com.vedha.partition.IdRangePartitioner;
+import com.vedha.pipeline.StepPipeline;
+import com.vedha.service.AdaptiveChunkCompletionPolicy;
+import com.vedha.service.BisectingItemWriter;
 import com.vedha.service.CustomItemProcessor;
+import com.vedha.service.DecompressingResource;
+import com.vedha.service.FilteringItemStreamReader;
+import com.vedha.service.FileStorageService;
+import com.vedha.service.IngestionStream;
+import com.vedha.service.IngestionStreams;
+import com.vedha.service.NdjsonLineMapper;
+import com.vedha.service.OrganizationCsvItemWriter;
+import com.vedha.service.OrganizationDictionaries;
+import com.vedha.service.OrganizationExportService;
+import com.vedha.service.OrganizationJdbcItemWriter;
+import com.vedha.service.OrganizationFilter;
+import com.vedha.service.OrganizationIdFilter;
+import com.vedha.service.OrganizationItemWriter;
+import com.vedha.service.OrganizationLineMapper;
+import com.vedha.service.OrganizationRejects;
+import com.vedha.service.OrganizationStaging;
+import com.vedha.service.OrganizationSummaryService;
+import com.vedha.service.PartitionQueue;
+import com.vedha.service.PooledIdAllocator;
+import com.vedha.service.RejectingLineMapper;
+import com.vedha.service.RowHashIndex;
+import com.vedha.service.StagedOrganizationReader;
+import com.vedha.service.StreamImportTasklet;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,195 +47,352 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+import org.springframework.batch.item.support.builder.SynchronizedItemStreamReaderBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+
 @Slf4j
 @Configuration
-@EnableAsync
 @EnableBatchProcessing
 @RequiredArgsConstructor
 public class BatchConfig {
 
-    private final FileRepository fileRepository;
+    // not the application context, a web application context would resolve plain paths against the servlet context
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+    private final FileStorageService fileStorageService;
+
+    private final RowHashIndex rowHashIndex;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DataSource dataSource;
+
+    private final OrganizationDictionaries organizationDictionaries;
+
+    private final JobRepositories jobRepositories;
+
+    private final StepPipeline stepPipeline;
+
+    private final OrganizationRejects organizationRejects;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${batch.scheduler.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${batch.adaptive-chunk.enabled:true}")
+    private boolean adaptiveChunkEnabled;
+
+    @Value("${batch.adaptive-chunk.target-transaction-time:500ms}")
+    private Duration targetTransactionTime;
+
+    @Value("${batch.adaptive-chunk.min-size:10}")
+    private int minChunkSize;
+
+    @Value("${batch.adaptive-chunk.max-size:10000}")
+    private int maxChunkSize;
+
+    @Value("${batch.partitioning.mode:local}")
+    private String partitioningMode;
+
+    @Value("${batch.partitioning.poll-interval:1s}")
+    private Duration partitionPollInterval;
+
+    @Value("${batch.partitioning.worker-timeout:30s}")
+    private Duration workerTimeout;
+
+    @Value("${batch.partitioning.max-attempts:3}")
+    private int maxPartitionAttempts;
+
+    @Value("${batch.fault-tolerance.enabled:false}")
+    private boolean faultToleranceEnabled;
 
     // Reader
+    //  filter job parameter (see OrganizationFilter) and minEmployees are evaluated on the raw csv fields,
+    //  rejected rows are never mapped to entities and are counted in the filter count of the step.
+    //  with the job parameter delta=true rows that did not change since the previous import of the same source are skipped as well,
+    //  unless aggregate=true, the summaries need every row of the source.
+    //  the file staged by stagingStep is read instead of the csv, unless a filter expression is given, it is evaluated on csv lines
     @Bean
     @StepScope // to get the job parameters and bean will be created for each step
-    public FlatFileItemReader<OrganizationEntity> reader(@Value("#{jobParameters['fileClassPath']}") String fileClassPath) {
+    public ItemStreamReader<OrganizationEntity> reader(@Value("#{jobParameters['fileClassPath']}") String fileClassPath,
+                                                       @Value("#{jobParameters['filter']}") String filter,
+                                                       @Value("#{jobParameters['minEmployees']}") Long minEmployees,
+                                                       @Value("#{jobParameters['delta'] == 'true'}") boolean delta,
+                                                       @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                                       @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                                       @Value("#{jobExecutionContext['stagedFile']}") String stagedFile) {
+
+        if (stagedFile != null && (filter == null || filter.isBlank())) {
+            return new FilteringItemStreamReader<>(new StagedOrganizationReader(Path.of(stagedFile), fileClassPath, minEmployees,
+                    delta && !aggregate ? rowHashIndex.previousRowHashes(jobExecutionId, fileClassPath) : null, organizationDictionaries),
+                    OrganizationLineMapper.FILTERED);
+        }
 
-        return new FlatFileItemReaderBuilder<OrganizationEntity>()
+        return filtering(new FlatFileItemReaderBuilder<OrganizationEntity>()
                 .name("organizationItemReader")
-                .resource(new ClassPathResource(fileClassPath)) //you can pass a server file path as well
+                .resource(inputResource(fileClassPath)) // classpath location, or a server file path with the file: prefix
                 .linesToSkip(1)
-                .delimited()
-                .delimiter(",")
-
-                // order should match with the csv file and the field name entity for the mapping
-                // index and organizationId will be ignored in the mapping to the entity
-                .names("index", "organizationId", "name", "website", "country", "description", "founded", "industry", "employees")
+                .saveState(false) // read by the multithreaded restCsvImporterStep, the line count would not be a restart point
 
-                // BeanWrapperFieldSetMapper is used to map the fields to the entity object with the same name automatically,
-                // but we are not using this because we are ignoring the index and organizationId
-//                .fieldSetMapper(new BeanWrapperFieldSetMapper<>() {{setTargetType(OrganizationEntity.class);}})
-
-                // Custom fieldSetMapper to map the fields to the entity object
-                .fieldSetMapper(fieldSet ->
-                        OrganizationEntity.builder()
-                                .name(fieldSet.readString("name"))
-                                .website(fieldSet.readString("website"))
-                                .country(fieldSet.readString("country"))
-                                .description(fieldSet.readString("description"))
-                                .founded(fieldSet.readString("founded"))
-                                .industry(fieldSet.readString("industry"))
-                                .employees(fieldSet.readLong("employees"))
-                                .build()
-                )
-                .build();
+                // columns are mapped by position to the entity object, index is skipped
+                .lineMapper(organizationLineMapper(fileClassPath, filter, minEmployees, delta && !aggregate, jobExecutionId))
+                .build());
     }
 
     @Bean
     @StepScope // to get the job parameters and bean will be created for each step
-    public FlatFileItemReader<OrganizationEntity> uploadFileReader(@Value("#{jobParameters['fileId']}") Long fileId) {
+    public ItemStreamReader<OrganizationEntity> uploadFileReader(@Value("#{jobParameters['fileId']}") Long fileId,
+                                                                 @Value("#{jobParameters['fileName']}") String fileName,
+                                                                 @Value("#{jobParameters['filter']}") String filter,
+                                                                 @Value("#{jobParameters['delta'] == 'true'}") boolean delta,
+                                                                 @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                                                 @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
 
-        return new FlatFileItemReaderBuilder<OrganizationEntity>()
+        return filtering(new FlatFileItemReaderBuilder<OrganizationEntity>()
                 .name("organizationItemReader")
-                .resource(new ByteArrayResource(fileRepository.findById(fileId).orElseThrow().getFileData()))
+                .resource(fileStorageService.resource(fileId)) // streamed from the BLOB, read lazily line by line
                 .linesToSkip(1)
-                .delimited()
-                .delimiter(",")
-                .names("index", "organizationId", "name", "website", "country", "description", "founded", "industry", "employees")
-                .fieldSetMapper(fieldSet ->
-                        OrganizationEntity.builder()
-                                .name(fieldSet.readString("name"))
-                                .website(fieldSet.readString("website"))
-                                .country(fieldSet.readString("country"))
-                                .description(fieldSet.readString("description"))
-                                .founded(fieldSet.readString("founded"))
-                                .industry(fieldSet.readString("industry"))
-                                .employees(fieldSet.readLong("employees"))
-                                .build()
-                )
-                .build();
+                .saveState(false) // read by the multithreaded restCsvUploadImporterStep
+                .lineMapper(organizationLineMapper(fileName, filter, null, delta && !aggregate, jobExecutionId))
+                .build());
+    }
+
+    // Partition Reader
+    //  one reader per partition, each reads only its own byte range and keeps its own restart state in the partition step execution
+    @Bean
+    @StepScope
+    public ItemStreamReader<OrganizationEntity> partitionReader(@Value("#{jobParameters['fileClassPath']}") String fileClassPath,
+                                                                @Value("#{jobParameters['filter']}") String filter,
+                                                                @Value("#{jobParameters['minEmployees']}") Long minEmployees,
+                                                                @Value("#{jobParameters['delta'] == 'true'}") boolean delta,
+                                                                @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                                                @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                                                @Value("#{stepExecutionContext['startByte']}") Long startByte,
+                                                                @Value("#{stepExecutionContext['endByte']}") Long endByte) {
+
+        return filtering(new FlatFileItemReaderBuilder<OrganizationEntity>()
+                .name("organizationPartitionReader")
+                .resource(new ByteRangeResource(inputResource(fileClassPath), startByte, endByte)) // header is already excluded by the partitioner
+                .recordSeparatorPolicy(new DefaultRecordSeparatorPolicy()) // a quoted field may span lines, ranges end on record boundaries
+                .lineMapper(organizationLineMapper(fileClassPath, filter, minEmployees, delta && !aggregate, jobExecutionId))
+                .build());
+    }
+
+    // Partitioner
+    //  partition count can be passed as job parameter gridSize, otherwise the grid size of the manager step is used
+    @Bean
+    @StepScope
+    public CsvByteRangePartitioner csvPartitioner(@Value("#{jobParameters['fileClassPath']}") String fileClassPath,
+                                                  @Value("#{jobParameters['gridSize']}") Long gridSize) {
+
+        return new CsvByteRangePartitioner(inputResource(fileClassPath), gridSize != null ? gridSize.intValue() : null);
     }
 
     // Processor
+    //  rows failing the filter are already dropped by the reader, items returned as null are counted in the filter count of the step
     @Bean
     @StepScope // to get the job parameters and bean will be created for each step
     public ItemProcessor<OrganizationEntity, OrganizationEntity> processor(@Value("#{jobParameters['minEmployees']}") Long minEmployees) {
-        return organization -> {
-
-            if (organization.getEmployees() > minEmployees) {
-                return organization;
-            } else {
-                log.warn("organization skipped: {}", organization);
-                return null;
-            }
-        };
+        return CustomItemProcessor.minEmployees(minEmployees);
     }
 
+
     // Writer
     @Bean
-    public ItemWriter<OrganizationEntity> writer(EntityManagerFactory entityManagerFactory) {
+    public ItemWriter<OrganizationEntity> jpaWriter(EntityManagerFactory entityManagerFactory) {
 
         return new JpaItemWriterBuilder<OrganizationEntity>()
                 .entityManagerFactory(entityManagerFactory)
                 .build();
     }
 
+    @Bean
+    public PooledIdAllocator organizationIdAllocator(JdbcTemplate jdbcTemplate) {
+        return new PooledIdAllocator(jdbcTemplate, "organizations_seq", 50); // should match the increment of the sequence
+    }
+
+    // Bulk Writer
+    //  jdbc batch upsert, skips the entity manager and the persistence context flush
+    @Bean
+    public ItemWriter<OrganizationEntity> jdbcWriter(JdbcTemplate jdbcTemplate, PooledIdAllocator organizationIdAllocator) {
+        return new OrganizationJdbcItemWriter(jdbcTemplate, organizationIdAllocator);
+    }
+
+    // writer can be selected with the job parameter writer=jdbc|jpa, default is jdbc.
+    //  jdbc upserts on organizationId, jpa only inserts and fails on organizations that were already imported.
+    //  duplicates, dimension ids and summaries are handled by OrganizationItemWriter.
+    //  with batch.fault-tolerance.enabled the rows the database refuses are found by bisecting the chunk and stored as rejects (jdbc only)
+    @Bean
+    @StepScope
+    public ItemStreamWriter<OrganizationEntity> writer(@Value("#{jobParameters['writer'] ?: 'jdbc'}") String writer,
+                                                       @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                                       @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                                       ItemWriter<OrganizationEntity> jpaWriter, ItemWriter<OrganizationEntity> jdbcWriter,
+                                                       OrganizationIdFilter organizationIdFilter, OrganizationSummaryService organizationSummaryService) {
+
+        ItemWriter<OrganizationEntity> delegate = "jpa".equalsIgnoreCase(writer) ? jpaWriter : jdbcWriter;
+        if (faultToleranceEnabled && delegate == jdbcWriter) {
+            delegate = new BisectingItemWriter<>(jdbcWriter, dataSource, (organization, e) -> organizationRejects.rejectWrite(jobExecutionId, organization, e));
+        }
+
+        return new OrganizationItemWriter(delegate, jobExecutionId, aggregate, organizationDictionaries, organizationIdFilter, organizationSummaryService);
+    }
+
     // Step
     //  is a single operation in the job like read, process, write or any other operation, but it should contain reader, writer
+    //  worker step, runs once per partition on a single thread, so the reader is never shared between threads.
+    //  allowStartIfComplete is not set, on restart only the failed partitions are executed again
     @Bean
-    public Step csvImporterStep(ItemReader<OrganizationEntity> reader, ItemWriter<OrganizationEntity> writer,
+    public Step csvImporterStep(ItemReader<OrganizationEntity> partitionReader, ItemWriter<OrganizationEntity> writer,
                                 ItemProcessor<OrganizationEntity, OrganizationEntity> processor,
                                 PlatformTransactionManager transactionManager,
-                                JobRepository jobRepository, CustomStepListener customStepListener) {
+                                CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener,
+                                @Value("${batch.chunk-size.csv-importer:1000}") int chunkSize) {
 
-        return new StepBuilder("csvImporterStep", jobRepository)
-                .listener(customStepListener)
-                .<OrganizationEntity, OrganizationEntity>chunk(1000, transactionManager)
-                .reader(reader)
-                .processor(processor)
-                .writer(writer)
-                .taskExecutor(taskExecutor())
+        StepBuilder stepBuilder = new StepBuilder("csvImporterStep", jobRepositories.forJob("csvImporterJob"))
+                .listener(customStepListener);
+
+        return chunk(stepBuilder, "csvImporterStep", chunkSize, null, transactionManager, batchMetricsListener, partitionReader, processor, writer)
+                .build();
+    }
+
+    // Partitioned Step
+    //  manager step, splits the csv file and runs the worker step for each partition in parallel,
+    //  in this instance or on the workers of all instances (batch.partitioning.mode)
+    @Bean
+    public Step csvImporterPartitionStep(Step csvImporterStep, CsvByteRangePartitioner csvPartitioner,
+                                         JobExplorer jobExplorer, PartitionQueue partitionQueue) {
+
+        return new StepBuilder("csvImporterPartitionStep", jobRepositories.forJob("csvImporterJob"))
+                .partitioner(csvImporterStep.getName(), csvPartitioner)
+                .partitionHandler(partitionHandler(csvImporterStep, Runtime.getRuntime().availableProcessors(), jobRepositories.forJob("csvImporterJob"), jobExplorer, partitionQueue))
                 .allowStartIfComplete(true)
                 .build();
     }
 
     // Job
     @Bean
-    public Job csvImporterJob(Step csvImporterStep, JobRepository jobRepository, CustomJobListener customJobListener) {
+    public Job csvImporterJob(Step csvImporterPartitionStep, CustomJobListener customJobListener) {
 
-        return new JobBuilder("csvImporterJob", jobRepository)
+        return new JobBuilder("csvImporterJob", jobRepositories.forJob("csvImporterJob"))
                 .incrementer(new RunIdIncrementer())
                 .listener(customJobListener)
-                .flow(csvImporterStep)
+                .flow(csvImporterPartitionStep)
                 .end()
                 .build();
     }
 
+    // Staging
+    //  converts the csv of the job into a columnar file once, reruns with other parameters skip the csv parsing (see OrganizationStaging)
+    @Bean
+    @StepScope
+    public Tasklet stagingTasklet(@Value("#{jobParameters['fileClassPath']}") String fileClassPath, OrganizationStaging organizationStaging) {
+
+        return (contribution, chunkContext) -> {
+
+            Path stagedFile = organizationStaging.stage(fileClassPath, inputResource(fileClassPath));
+            if (stagedFile != null) {
+                chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext().putString("stagedFile", stagedFile.toString());
+            }
+
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    @Bean
+    public Step stagingStep(Tasklet stagingTasklet, PlatformTransactionManager transactionManager) {
+
+        return new StepBuilder("stagingStep", jobRepositories.forJob("restCsvImporterJob"))
+                .tasklet(stagingTasklet, transactionManager)
+                .allowStartIfComplete(true)
+                .build();
+    }
+
     @Bean
     public Step restCsvImporterStep(ItemReader<OrganizationEntity> reader, ItemWriter<OrganizationEntity> writer, CustomItemProcessor processor, // Custom ItemProcessor
-                                    PlatformTransactionManager transactionManager, JobRepository jobRepository, CustomStepListener customStepListener) {
+                                    PlatformTransactionManager transactionManager, CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener,
+                                    @Value("${batch.chunk-size.rest-csv-importer:500}") int chunkSize) {
 
-        return new StepBuilder("restCsvImporterStep", jobRepository)
-                .listener(customStepListener)
-                .<OrganizationEntity, OrganizationEntity>chunk(500, transactionManager)
-                .reader(reader)
-                .processor(processor)
-                .writer(writer)
-                .taskExecutor(taskExecutor())
+        StepBuilder stepBuilder = new StepBuilder("restCsvImporterStep", jobRepositories.forJob("restCsvImporterJob"))
+                .listener(customStepListener);
+
+        return chunk(stepBuilder, "restCsvImporterStep", chunkSize, stepTaskExecutor(), transactionManager, batchMetricsListener, reader, processor, writer)
                 .allowStartIfComplete(true)
                 .build();
     }
 
     // Job
     @Bean
-    public Job restCsvImporterJob(Step restCsvImporterStep, JobRepository jobRepository, CustomJobListener customJobListener) {
+    public Job restCsvImporterJob(Step stagingStep, Step restCsvImporterStep, CustomJobListener customJobListener) {
 
-        return new JobBuilder("restCsvImporterJob", jobRepository)
+        return new JobBuilder("restCsvImporterJob", jobRepositories.forJob("restCsvImporterJob"))
                 .incrementer(new RunIdIncrementer())
                 .listener(customJobListener)
-                .flow(restCsvImporterStep)
+                .flow(stagingStep)
+                .next(restCsvImporterStep)
                 .end()
                 .build();
     }
 
     @Bean
     public Step restCsvUploadImporterStep(ItemReader<OrganizationEntity> uploadFileReader, ItemWriter<OrganizationEntity> writer,
-                                    PlatformTransactionManager transactionManager, JobRepository jobRepository, CustomStepListener customStepListener) {
+                                    PlatformTransactionManager transactionManager, CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener,
+                                    @Value("${batch.chunk-size.rest-csv-upload-importer:50}") int chunkSize) {
 
-        return new StepBuilder("restCsvUploadImporterStep", jobRepository)
-                .listener(customStepListener)
-                .<OrganizationEntity, OrganizationEntity>chunk(50, transactionManager)
-                .reader(uploadFileReader)
-                .writer(writer)
-                .taskExecutor(taskExecutor())
+        StepBuilder stepBuilder = new StepBuilder("restCsvUploadImporterStep", jobRepositories.forJob("restCsvUploadImporterJob"))
+                .listener(customStepListener);
+
+        return chunk(stepBuilder, "restCsvUploadImporterStep", chunkSize, stepTaskExecutor(), transactionManager, batchMetricsListener, uploadFileReader, null, writer)
                 .allowStartIfComplete(true)
                 .build();
     }
 
     // Job
     @Bean
-    public Job restCsvUploadImporterJob(Step restCsvUploadImporterStep, JobRepository jobRepository, CustomJobListener customJobListener) {
+    public Job restCsvUploadImporterJob(Step restCsvUploadImporterStep, CustomJobListener customJobListener) {
 
-        return new JobBuilder("restCsvUploadImporterJob", jobRepository)
+        return new JobBuilder("restCsvUploadImporterJob", jobRepositories.forJob("restCsvUploadImporterJob"))
                 .incrementer(new RunIdIncrementer())
                 .listener(customJobListener)
                 .flow(restCsvUploadImporterStep)
@@ -209,12 +400,359 @@ public class BatchConfig {
                 .build();
     }
 
-    public TaskExecutor taskExecutor() {
+    // Directory Reader
+    //  one reader per file of a directory batch, plain, gzip or zip, rows are tagged with the file name as their source
+    @Bean
+    @StepScope
+    public ItemStreamReader<OrganizationEntity> directoryFileReader(@Value("#{stepExecutionContext['fileLocation']}") String fileLocation,
+                                                                    @Value("#{stepExecutionContext['fileName']}") String fileName,
+                                                                    @Value("#{jobParameters['delta'] == 'true'}") boolean delta,
+                                                                    @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                                                    @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+
+        return filtering(new FlatFileItemReaderBuilder<OrganizationEntity>()
+                .name("organizationDirectoryFileReader")
+                .resource(new DecompressingResource(inputResource(fileLocation)))
+                .linesToSkip(1)
+                .lineMapper(organizationLineMapper(fileName, null, null, delta && !aggregate, jobExecutionId))
+                .build());
+    }
+
+    @Bean
+    @StepScope
+    public DirectoryPartitioner directoryPartitioner(@Value("#{jobParameters['directory']}") String directory) {
+        return new DirectoryPartitioner(Path.of(directory));
+    }
+
+    // Directory Step
+    //  worker step, imports one file of the batch, DirectoryFileListener moves the file to processed or failed afterwards
+    @Bean
+    public Step directoryImporterStep(ItemReader<OrganizationEntity> directoryFileReader, ItemWriter<OrganizationEntity> writer,
+                                      PlatformTransactionManager transactionManager,
+                                      CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener, DirectoryFileListener directoryFileListener,
+                                      @Value("${batch.chunk-size.directory-importer:1000}") int chunkSize) {
+
+        StepBuilder stepBuilder = new StepBuilder("directoryImporterStep", jobRepositories.forJob("directoryImporterJob"))
+                .listener(customStepListener)
+                .listener(directoryFileListener);
+
+        return chunk(stepBuilder, "directoryImporterStep", chunkSize, null, transactionManager, batchMetricsListener, directoryFileReader, null, writer)
+                .build();
+    }
+
+    // Partitioned Step
+    //  one partition per file, the files of a batch are imported in parallel within the worker budget of stepTaskExecutor
+    @Bean
+    public Step directoryImporterPartitionStep(Step directoryImporterStep, DirectoryPartitioner directoryPartitioner,
+                                               JobExplorer jobExplorer, PartitionQueue partitionQueue) {
+
+        return new StepBuilder("directoryImporterPartitionStep", jobRepositories.forJob("directoryImporterJob"))
+                .partitioner(directoryImporterStep.getName(), directoryPartitioner)
+                .partitionHandler(partitionHandler(directoryImporterStep, 1, jobRepositories.forJob("directoryImporterJob"), jobExplorer, partitionQueue)) // grid size is not used, one partition per file
+                .build();
+    }
+
+    // Job
+    //  one job per batch of files collected by DirectoryWatcher
+    @Bean
+    public Job directoryImporterJob(Step directoryImporterPartitionStep, CustomJobListener customJobListener) {
+
+        return new JobBuilder("directoryImporterJob", jobRepositories.forJob("directoryImporterJob"))
+                .incrementer(new RunIdIncrementer())
+                .listener(customJobListener)
+                .flow(directoryImporterPartitionStep)
+                .end()
+                .build();
+    }
+
+    // Stream Tasklet
+    //  lines of a POST /api/batch/stream request, csv or ndjson, taken while the request is still being sent (see IngestionStreams),
+    //  mapped like the lines of a csv file and written by the same writer in micro batches (see StreamImportTasklet)
+    @Bean
+    @StepScope
+    public Tasklet streamImportTasklet(@Value("#{jobParameters['streamId']}") String streamId,
+                                       @Value("#{jobParameters['source']}") String source,
+                                       @Value("#{jobParameters['filter']}") String filter,
+                                       @Value("#{jobParameters['minEmployees']}") Long minEmployees,
+                                       @Value("#{jobParameters['delta'] == 'true'}") boolean delta,
+                                       @Value("#{jobParameters['aggregate'] == 'true'}") boolean aggregate,
+                                       @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                       @Value("${batch.streaming.batch-size:500}") int batchSize,
+                                       @Value("${batch.streaming.max-latency:1s}") Duration maxLatency,
+                                       ItemWriter<OrganizationEntity> writer, IngestionStreams ingestionStreams,
+                                       PlatformTransactionManager transactionManager) {
+
+        IngestionStream stream = ingestionStreams.stream(streamId);
+
+        LineMapper<OrganizationEntity> lineMapper = csvLineMapper(source, filter, minEmployees, delta && !aggregate, jobExecutionId);
+        if (stream.getFormat() == IngestionStream.Format.NDJSON) {
+            lineMapper = new NdjsonLineMapper(lineMapper);
+        }
+
+        return new StreamImportTasklet(stream, rejecting(lineMapper, source, jobExecutionId), writer, transactionManager, batchSize, maxLatency);
+    }
+
+    // Stream Step
+    //  runs as long as the request, each tasklet call commits one micro batch.
+    //  resourceless, the tasklet call waits for lines without a connection and writes in its own transaction,
+    //  the step execution is still saved after every call, in a transaction of the job repository
+    @Bean
+    public Step streamImporterStep(Tasklet streamImportTasklet, ItemStreamWriter<OrganizationEntity> writer,
+                                   CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener) {
+
+        return new StepBuilder("streamImporterStep", jobRepositories.forJob("streamImporterJob"))
+                .listener(customStepListener)
+                .tasklet(streamImportTasklet, new ResourcelessTransactionManager())
+                .stream(writer) // the tasklet writes with it, its counts are added in update
+                .listener(batchMetricsListener)
+                .build();
+    }
+
+    // Job
+    //  one job per streaming request, not restartable, the stream is gone with the request
+    @Bean
+    public Job streamImporterJob(Step streamImporterStep, CustomJobListener customJobListener) {
+
+        return new JobBuilder("streamImporterJob", jobRepositories.forJob("streamImporterJob"))
+                .incrementer(new RunIdIncrementer())
+                .listener(customJobListener)
+                .preventRestart()
+                .flow(streamImporterStep)
+                .end()
+                .build();
+    }
+
+    // Export Reader
+    //  keyset paging on id inside the range of the partition, every page starts after the last id of the previous page,
+    //  so a page costs the same at the end of the table as at the start. saveState is off, a restarted partition exports its whole range again
+    @Bean
+    @StepScope
+    public ItemStreamReader<OrganizationEntity> exportReader(@Value("#{stepExecutionContext['minId']}") Long minId,
+                                                             @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                                             @Value("${batch.export.page-size:1000}") int pageSize,
+                                                             OrganizationExportService organizationExportService) {
+
+        return new JdbcPagingItemReaderBuilder<OrganizationEntity>()
+                .name("organizationExportReader")
+                .dataSource(dataSource)
+                .selectClause(OrganizationExportService.SELECT_COLUMNS)
+                .fromClause("organizations")
+                .whereClause("id BETWEEN :minId AND :maxId")
+                .parameterValues(Map.of("minId", minId, "maxId", maxId))
+                .sortKeys(Map.of("id", Order.ASCENDING))
+                .rowMapper(organizationExportService::mapRow)
+                .pageSize(pageSize)
+                .fetchSize(pageSize)
+                .saveState(false)
+                .build();
+    }
+
+    // Export Writer
+    //  every partition writes its own part file next to the export file, csvExportMergeStep puts them together
+    @Bean
+    @StepScope
+    public ItemStreamWriter<OrganizationEntity> exportWriter(@Value("#{jobParameters['fileName']}") String fileName,
+                                                             @Value("#{jobParameters['gzip'] == 'true'}") boolean gzip,
+                                                             @Value("#{stepExecutionContext['partitionIndex']}") Integer partitionIndex,
+                                                             OrganizationExportService organizationExportService) {
+
+        return new OrganizationCsvItemWriter(organizationExportService.part(organizationExportService.resolve(fileName), partitionIndex), gzip);
+    }
+
+    // Export Partitioner
+    //  ranges of equal width on id, part files left over from a failed export are deleted first
+    @Bean
+    @StepScope
+    public Partitioner exportPartitioner(@Value("#{jobParameters['fileName']}") String fileName,
+                                         @Value("#{jobParameters['gridSize']}") Long gridSize,
+                                         JdbcTemplate jdbcTemplate, OrganizationExportService organizationExportService) {
+
+        IdRangePartitioner idRangePartitioner = new IdRangePartitioner(jdbcTemplate, "organizations", gridSize != null ? gridSize.intValue() : null);
+
+        return partitions -> {
+            organizationExportService.deleteParts(organizationExportService.resolve(fileName));
+            return idRangePartitioner.partition(partitions);
+        };
+    }
+
+    @Bean
+    @StepScope
+    public Tasklet exportMergeTasklet(@Value("#{jobParameters['fileName']}") String fileName,
+                                      @Value("#{jobParameters['gzip'] == 'true'}") boolean gzip,
+                                      OrganizationExportService organizationExportService) {
+
+        return (contribution, chunkContext) -> {
+            organizationExportService.merge(organizationExportService.resolve(fileName), gzip);
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    // Export Step
+    //  worker step, reads one id range in pages and writes it to its part file
+    @Bean
+    public Step csvExportStep(ItemReader<OrganizationEntity> exportReader, ItemWriter<OrganizationEntity> exportWriter,
+                              PlatformTransactionManager transactionManager,
+                              CustomStepListener customStepListener, BatchMetricsListener batchMetricsListener,
+                              @Value("${batch.export.page-size:1000}") int pageSize) {
+
+        return new StepBuilder("csvExportStep", jobRepositories.forJob("csvExportJob"))
+                .listener(customStepListener)
+                .<OrganizationEntity, OrganizationEntity>chunk(pageSize, transactionManager)
+                .listener(batchMetricsListener)
+                .reader(exportReader)
+                .writer(exportWriter)
+                .build();
+    }
+
+    // Partitioned Step
+    @Bean
+    public Step csvExportPartitionStep(Step csvExportStep, Partitioner exportPartitioner) {
+
+        return new StepBuilder("csvExportPartitionStep", jobRepositories.forJob("csvExportJob"))
+                .partitioner(csvExportStep.getName(), exportPartitioner)
+                .step(csvExportStep)
+                .gridSize(Runtime.getRuntime().availableProcessors())
+                .taskExecutor(stepTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public Step csvExportMergeStep(Tasklet exportMergeTasklet, PlatformTransactionManager transactionManager) {
+
+        return new StepBuilder("csvExportMergeStep", jobRepositories.forJob("csvExportJob"))
+                .tasklet(exportMergeTasklet, transactionManager)
+                .build();
+    }
+
+    // Job
+    //  exports the organizations table to a csv file in the export directory
+    @Bean
+    public Job csvExportJob(Step csvExportPartitionStep, Step csvExportMergeStep, CustomJobListener customJobListener) {
+
+        return new JobBuilder("csvExportJob", jobRepositories.forJob("csvExportJob"))
+                .incrementer(new RunIdIncrementer())
+                .listener(customJobListener)
+                .start(csvExportPartitionStep)
+                .next(csvExportMergeStep)
+                .build();
+    }
+
+    // local: partitions run on stepTaskExecutor of this instance.
+    // database: partitions are queued in batch_partitions and executed by the PartitionWorkers of all instances sharing the database,
+    //  the input files have to be readable by every instance
+    private PartitionHandler partitionHandler(Step workerStep, int gridSize, JobRepository jobRepository, JobExplorer jobExplorer, PartitionQueue partitionQueue) {
+
+        if ("database".equalsIgnoreCase(partitioningMode)) {
+            return new DatabasePartitionHandler(partitionQueue, jobExplorer, jobRepository, workerStep.getName(), gridSize,
+                    partitionPollInterval, workerTimeout, maxPartitionAttempts);
+        }
+
+        TaskExecutorPartitionHandler partitionHandler = new TaskExecutorPartitionHandler();
+        partitionHandler.setStep(workerStep);
+        partitionHandler.setGridSize(gridSize);
+        partitionHandler.setTaskExecutor(stepTaskExecutor());
+
+        return partitionHandler;
+    }
+
+    private LineMapper<OrganizationEntity> organizationLineMapper(String source, String filter, Long minEmployees, boolean delta, Long jobExecutionId) {
+        return rejecting(csvLineMapper(source, filter, minEmployees, delta, jobExecutionId), source, jobExecutionId);
+    }
+
+    private OrganizationLineMapper csvLineMapper(String source, String filter, Long minEmployees, boolean delta, Long jobExecutionId) {
+
+        return new OrganizationLineMapper(source, OrganizationFilter.of(filter, minEmployees),
+                delta ? rowHashIndex.previousRowHashes(jobExecutionId, source) : null, organizationDictionaries);
+    }
+
+    // with batch.fault-tolerance.enabled malformed lines are stored as rejects instead of failing the step
+    private LineMapper<OrganizationEntity> rejecting(LineMapper<OrganizationEntity> lineMapper, String source, Long jobExecutionId) {
+        return faultToleranceEnabled ? new RejectingLineMapper(lineMapper, organizationRejects, jobExecutionId, source) : lineMapper;
+    }
+
+    private static ItemStreamReader<OrganizationEntity> filtering(FlatFileItemReader<OrganizationEntity> reader) {
+        return new FilteringItemStreamReader<>(reader, OrganizationLineMapper.FILTERED);
+    }
+
+    // Chunk
+    //  with batch.pipeline.enabled the reader runs ahead on its own thread into a bounded queue,
+    //  the processor runs on virtual threads and the writer writes the processed items in read order (see StepPipeline).
+    //  with a task executor the step is multi-threaded, the read ahead position is not saved then,
+    //  without the pipeline the reader is read by the step threads concurrently and is synchronized
+    private SimpleStepBuilder<OrganizationEntity, ?> chunk(StepBuilder stepBuilder, String stepName, int chunkSize, TaskExecutor taskExecutor, PlatformTransactionManager transactionManager,
+                                                           BatchMetricsListener batchMetricsListener, ItemReader<OrganizationEntity> reader,
+                                                           ItemProcessor<OrganizationEntity, OrganizationEntity> processor, ItemWriter<OrganizationEntity> writer) {
+
+        AdaptiveChunkCompletionPolicy chunkPolicy = chunkPolicy(stepName, chunkSize);
+        boolean saveState = taskExecutor == null;
+
+        if (stepPipeline.enabled() && processor != null) {
+            SimpleStepBuilder<OrganizationEntity, Future<OrganizationEntity>> builder = stepBuilder
+                    .<OrganizationEntity, Future<OrganizationEntity>>chunk(chunkPolicy, transactionManager)
+                    .listener(chunkPolicy)
+                    .listener(batchMetricsListener)
+                    .reader(stepPipeline.reader(stepName, reader, saveState))
+                    .processor(stepPipeline.processor(stepName, processor))
+                    .writer(stepPipeline.writer(stepName, writer));
+
+            return taskExecutor != null ? builder.taskExecutor(taskExecutor) : builder;
+        }
+
+        SimpleStepBuilder<OrganizationEntity, OrganizationEntity> builder = stepBuilder
+                .<OrganizationEntity, OrganizationEntity>chunk(chunkPolicy, transactionManager)
+                .listener(chunkPolicy)
+                .listener(batchMetricsListener)
+                .reader(stepPipeline.enabled() ? stepPipeline.reader(stepName, reader, saveState) : synchronizedIfConcurrent(reader, taskExecutor))
+                .writer(writer);
+
+        if (processor != null) {
+            builder.processor(processor);
+        }
+
+        return taskExecutor != null ? builder.taskExecutor(taskExecutor) : builder;
+    }
+
+    private static ItemReader<OrganizationEntity> synchronizedIfConcurrent(ItemReader<OrganizationEntity> reader, TaskExecutor taskExecutor) {
+
+        if (taskExecutor == null || !(reader instanceof ItemStreamReader<OrganizationEntity> streamReader)) {
+            return reader;
+        }
+
+        return new SynchronizedItemStreamReaderBuilder<OrganizationEntity>().delegate(streamReader).build();
+    }
+
+    // chunk size starts from the configured size and adapts to the target transaction time,
+    // when disabled the size stays fixed at the configured size
+    private AdaptiveChunkCompletionPolicy chunkPolicy(String stepName, int chunkSize) {
+
+        IntSupplier threadsAwaitingConnection = () -> dataSource instanceof HikariDataSource hikariDataSource && hikariDataSource.getHikariPoolMXBean() != null
+                ? hikariDataSource.getHikariPoolMXBean().getThreadsAwaitingConnection()
+                : 0;
+
+        return adaptiveChunkEnabled
+                ? new AdaptiveChunkCompletionPolicy(stepName, chunkSize, minChunkSize, maxChunkSize, targetTransactionTime, threadsAwaitingConnection, meterRegistry)
+                : new AdaptiveChunkCompletionPolicy(stepName, chunkSize, chunkSize, chunkSize, targetTransactionTime, threadsAwaitingConnection, meterRegistry);
+    }
+
+    private static Resource inputResource(String location) {
+        return RESOURCE_LOADER.getResource(location);
+    }
+
+    // Task Executor
+    //  one shared bean for all the steps and partitions, so the concurrency limit is a global worker budget.
+    //  every worker holds a database connection, the budget leaves besides them
+    //   two connections for each running job, job repository updates and the BLOB stream of an upload (FileStorageService.openStream)
+    //   one for the dictionary inserts and one for the reject inserts, both take their own transaction one at a time
+    //  not named taskExecutor, @Async and spring boot would pick it up as the application task executor
+    @Bean
+    public TaskExecutor stepTaskExecutor() {
 
-//        log.warn("availableProcessors: {}", Runtime.getRuntime().availableProcessors());
+        int reserved = 2 * maxConcurrentJobs + 2;
+        int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), maximumPoolSize - reserved));
+        log.info("Step task executor with {} workers", workers);
 
-        SimpleAsyncTaskExecutor asyncTaskExecutor = new SimpleAsyncTaskExecutor();
-        asyncTaskExecutor.setConcurrencyLimit(Runtime.getRuntime().availableProcessors() >> 1);
+        SimpleAsyncTaskExecutor asyncTaskExecutor = new SimpleAsyncTaskExecutor("step-");
+        asyncTaskExecutor.setConcurrencyLimit(workers);
         asyncTaskExecutor.setVirtualThreads(true);
 
         return asyncTaskExecutor;
@@ -0,0 +1,12 @@
+package com.vedha.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caffeine caches configured with spring.cache, size and ttl bounded
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ORGANIZATIONS_CACHE = "organizations";
+}
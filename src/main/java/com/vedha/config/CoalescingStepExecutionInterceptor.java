@@ -0,0 +1,76 @@
+package com.vedha.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Around the JobRepository, a running step writes its progress (BATCH_STEP_EXECUTION) and its execution context
+// at most once per flush interval instead of after every chunk, the final state of the step is always written.
+// Steps that cannot be restarted (multi-threaded or without saved reader state) never write their execution context.
+// A restarted step resumes from the last written context, the rows after it are read and upserted again
+class CoalescingStepExecutionInterceptor implements MethodInterceptor {
+
+    private final long flushIntervalNanos;
+
+    private final Set<String> statelessSteps;
+
+    private final Map<Long, Long> stepFlushes = new ConcurrentHashMap<>(); // step execution id -> nano time of the last write
+
+    private final Map<Long, Long> contextFlushes = new ConcurrentHashMap<>();
+
+    CoalescingStepExecutionInterceptor(Duration flushInterval, Set<String> statelessSteps) {
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.statelessSteps = statelessSteps;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        Object[] arguments = invocation.getArguments();
+        if (arguments.length == 1 && arguments[0] instanceof StepExecution stepExecution && stepExecution.getId() != null) {
+
+            String method = invocation.getMethod().getName();
+            if ("update".equals(method) && coalesce(stepFlushes, stepExecution)) {
+                return null;
+            }
+            if ("updateExecutionContext".equals(method) && (stateless(stepExecution) || coalesce(contextFlushes, stepExecution))) {
+                return null;
+            }
+        }
+
+        return invocation.proceed();
+    }
+
+    // true when the write can be skipped
+    private boolean coalesce(Map<Long, Long> flushes, StepExecution stepExecution) {
+
+        if (stepExecution.getStatus() != BatchStatus.STARTED) {
+            flushes.remove(stepExecution.getId());
+            return false;
+        }
+
+        long now = System.nanoTime();
+        Long lastFlush = flushes.get(stepExecution.getId());
+        if (lastFlush != null && now - lastFlush < flushIntervalNanos) {
+            return true;
+        }
+
+        flushes.put(stepExecution.getId(), now);
+        return false;
+    }
+
+    // partition steps are named <worker step>:<partition>
+    private boolean stateless(StepExecution stepExecution) {
+
+        String stepName = stepExecution.getStepName();
+        int separator = stepName.indexOf(':');
+
+        return statelessSteps.contains(separator < 0 ? stepName : stepName.substring(0, separator));
+    }
+}
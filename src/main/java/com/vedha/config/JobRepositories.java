@@ -0,0 +1,147 @@
+package com.vedha.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Job repository and launcher of every job, a job and all its steps have to use the same one (batch.metadata).
+//  full: the database repository, every chunk writes the step execution and its execution context.
+//  coalesced: the database repository behind CoalescingStepExecutionInterceptor.
+//  in-memory-jobs: these jobs keep their metadata in an embedded in-memory database, no history after a restart of the application,
+//   they can not be partitioned with batch.partitioning.mode=database, the workers of other instances would not find them,
+//   the application does not start then
+// Not beans of type JobRepository or JobLauncher, they would make the ones of @EnableBatchProcessing ambiguous
+@Slf4j
+@Component
+public class JobRepositories {
+
+    // ids of the in-memory repository stay clear of the database ones, per job caches are keyed by job execution id
+    private static final long IN_MEMORY_FIRST_ID = 1_000_000_000_000L;
+
+    // jobs with a partition handler of BatchConfig, queued in batch_partitions with batch.partitioning.mode=database
+    private static final Set<String> PARTITIONED_JOBS = Set.of("csvImporterJob", "directoryImporterJob");
+
+    private final JobRepository jobRepository;
+
+    private final JobLauncher jobLauncher;
+
+    private final Set<String> inMemoryJobs;
+
+    private EmbeddedDatabase inMemoryDatabase;
+
+    private JobRepository inMemoryJobRepository;
+
+    private JobLauncher inMemoryJobLauncher;
+
+    public JobRepositories(JobRepository jobRepository, JobLauncher jobLauncher,
+                           @Value("${batch.metadata.mode:full}") String mode,
+                           @Value("${batch.metadata.flush-interval:5s}") Duration flushInterval,
+                           @Value("${batch.metadata.stateless-steps:}") Set<String> statelessSteps,
+                           @Value("${batch.metadata.in-memory-jobs:}") Set<String> inMemoryJobs,
+                           @Value("${batch.partitioning.mode:local}") String partitioningMode) throws Exception {
+
+        if ("database".equalsIgnoreCase(partitioningMode)) {
+
+            Set<String> partitioned = new TreeSet<>(inMemoryJobs);
+            partitioned.retainAll(PARTITIONED_JOBS);
+            if (!partitioned.isEmpty()) {
+                throw new IllegalStateException("batch.metadata.in-memory-jobs " + partitioned
+                        + " are partitioned, they can not keep their metadata in memory with batch.partitioning.mode=database");
+            }
+        }
+
+        this.inMemoryJobs = inMemoryJobs;
+
+        if ("coalesced".equalsIgnoreCase(mode)) {
+
+            ProxyFactory proxyFactory = new ProxyFactory(jobRepository);
+            proxyFactory.addInterface(JobRepository.class);
+            proxyFactory.addAdvice(new CoalescingStepExecutionInterceptor(flushInterval, statelessSteps));
+            this.jobRepository = (JobRepository) proxyFactory.getProxy();
+            this.jobLauncher = launcher(this.jobRepository);
+        } else {
+
+            this.jobRepository = jobRepository;
+            this.jobLauncher = jobLauncher;
+        }
+
+        log.info("Job metadata mode {}, in-memory jobs {}", mode, inMemoryJobs);
+    }
+
+    public JobRepository forJob(String jobName) {
+        return inMemoryJobs.contains(jobName) ? inMemoryJobRepository() : jobRepository;
+    }
+
+    public JobLauncher launcherFor(String jobName) {
+
+        if (inMemoryJobs.contains(jobName)) {
+            inMemoryJobRepository();
+            return inMemoryJobLauncher;
+        }
+
+        return jobLauncher;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (inMemoryDatabase != null) {
+            inMemoryDatabase.shutdown();
+        }
+    }
+
+    private synchronized JobRepository inMemoryJobRepository() {
+
+        if (inMemoryJobRepository != null) {
+            return inMemoryJobRepository;
+        }
+
+        try {
+            inMemoryDatabase = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .addScript("/org/springframework/batch/core/schema-h2.sql")
+                    .build();
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(inMemoryDatabase);
+            for (String sequence : new String[]{"BATCH_JOB_SEQ", "BATCH_JOB_EXECUTION_SEQ", "BATCH_STEP_EXECUTION_SEQ"}) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + IN_MEMORY_FIRST_ID);
+            }
+
+            JobRepositoryFactoryBean factoryBean = new JobRepositoryFactoryBean();
+            factoryBean.setDataSource(inMemoryDatabase);
+            factoryBean.setTransactionManager(new DataSourceTransactionManager(inMemoryDatabase));
+            factoryBean.afterPropertiesSet();
+
+            inMemoryJobRepository = factoryBean.getObject();
+            inMemoryJobLauncher = launcher(inMemoryJobRepository);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to create the in-memory job repository", e);
+        }
+
+        return inMemoryJobRepository;
+    }
+
+    private static JobLauncher launcher(JobRepository jobRepository) throws Exception {
+
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher(); // synchronous, jobs already run on the JobScheduler threads
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+
+        return jobLauncher;
+    }
+}
@@ -1,17 +1,41 @@
 package com.vedha.controller;
 
+import com.vedha.entity.FileEntity;
 import com.vedha.event.RestBatchEvent;
+import com.vedha.event.RestExportEvent;
+import com.vedha.event.RestStreamEvent;
 import com.vedha.event.RestUploadEvent;
+import com.vedha.exception.IngestionStreamStalledException;
+import com.vedha.exception.JobSchedulerSaturatedException;
+import com.vedha.service.FileStorageService;
+import com.vedha.service.IngestionStream;
+import com.vedha.service.IngestionStreams;
+import com.vedha.service.JobScheduler;
+import com.vedha.service.OrganizationExportService;
+import com.vedha.service.OrganizationFilter;
+import com.vedha.service.OrganizationRejects;
+import com.vedha.service.JobScheduler.JobPriority;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -22,29 +46,176 @@ public class BatchController {
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
-    @Operation(summary = "Start Batch Job", description = "Start the batch job with the minimum number of employees", tags = {"Batch"})
+    private final FileStorageService fileStorageService;
+
+    private final JobScheduler jobScheduler;
+
+    private final OrganizationExportService organizationExportService;
+
+    private final OrganizationRejects organizationRejects;
+
+    private final IngestionStreams ingestionStreams;
+
+    @Operation(summary = "Start Batch Job", description = "Start the batch job with the minimum number of employees and an optional filter, e.g. country=Germany|France;industry!=Dairy", tags = {"Batch"})
     @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @ApiResponse(responseCode = "429", description = "HTTP Status 429 Too Many Requests, job queue is full, retry after the Retry-After seconds")
     @PostMapping(value = "/start", consumes = MediaType.ALL_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> startRestJob(@RequestParam("minEmployees") Long minEmployees) {
+    public ResponseEntity<String> startRestJob(@RequestParam("minEmployees") Long minEmployees,
+                                               @RequestParam(value = "filter", required = false) String filter,
+                                               @RequestParam(value = "priority", defaultValue = "NORMAL") JobPriority priority) {
 
-        log.info("Starting the job with minEmployees: {}", minEmployees);
+        log.info("Starting the job with minEmployees: {} and filter: {}", minEmployees, filter);
 
-        // Publish the event to start the job
-        applicationEventPublisher.publishEvent(RestBatchEvent.builder().minEmployees(minEmployees).build());
+        // Validate the filter before the job is queued, invalid expressions fail with 400
+        OrganizationFilter.of(filter, minEmployees);
+
+        // Publish the event to queue the job
+        applicationEventPublisher.publishEvent(RestBatchEvent.builder().minEmployees(minEmployees).filter(filter).priority(priority).build());
 
-        return ResponseEntity.ok("Job started successfully");
+        return ResponseEntity.ok("Job queued successfully");
     }
 
-    @Operation(summary = "File Upload Job", description = "Upload file to start the batch job", tags = {"Batch"})
+    @Operation(summary = "File Upload Job", description = "Upload a csv file, plain or gzip/zip compressed, to start the batch job, only new or changed rows are imported, identical files are skipped unless forced", tags = {"Batch"})
     @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @ApiResponse(responseCode = "429", description = "HTTP Status 429 Too Many Requests, job queue is full, retry after the Retry-After seconds")
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> uploadRestJob(@RequestParam MultipartFile multipartFile) {
+    public ResponseEntity<String> uploadRestJob(@RequestParam MultipartFile multipartFile,
+                                                @RequestParam(value = "priority", defaultValue = "NORMAL") JobPriority priority,
+                                                @RequestParam(value = "force", defaultValue = "false") boolean force) throws IOException {
 
         log.info("Uploading the file: {}", multipartFile.getOriginalFilename());
 
-        // Publish the event to stop the job
-        applicationEventPublisher.publishEvent(RestUploadEvent.builder().multipartFile(multipartFile).build());
+        // Reject before storing the file when the job queue is already full
+        jobScheduler.ensureCapacity();
+
+        // Identical content was already uploaded, nothing to import unless forced
+        FileStorageService.Upload upload = fileStorageService.inspect(multipartFile);
+        Optional<FileEntity> uploaded = fileStorageService.findByContentHash(upload.contentHash());
+        if (uploaded.isPresent() && !force) {
+
+            log.info("File {} is identical to file {}, import skipped", multipartFile.getOriginalFilename(), uploaded.get().getId());
+            return ResponseEntity.ok("File already uploaded with id: " + uploaded.get().getId() + ", import skipped");
+        }
+
+        // Store the file before the request completes, the multipart temp file is deleted afterwards
+        FileEntity fileEntity = fileStorageService.store(multipartFile, upload);
+
+        // Publish the event to start the job
+        applicationEventPublisher.publishEvent(RestUploadEvent.builder().fileId(fileEntity.getId()).fileName(fileEntity.getFileName()).priority(priority).build());
+
+        return ResponseEntity.ok("Job queued successfully with file upload: " + multipartFile.getOriginalFilename());
+    }
+
+    @Operation(summary = "Stream Import Job", description = "Send organizations as a chunked csv (with header) or ndjson body, rows are committed in micro batches while the body is still being sent, "
+            + "the request is slowed down when the import falls behind", tags = {"Batch"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK, the whole stream was imported")
+    @ApiResponse(responseCode = "202", description = "HTTP Status 202 Accepted, the stream was received and its job has not finished yet")
+    @ApiResponse(responseCode = "429", description = "HTTP Status 429 Too Many Requests, job queue is full, retry after the Retry-After seconds")
+    @ApiResponse(responseCode = "500", description = "HTTP Status 500, the job failed, the micro batches committed before stay imported")
+    @ApiResponse(responseCode = "503", description = "HTTP Status 503 Service Unavailable, the import did not take a line for batch.streaming.stall-timeout")
+    @PostMapping(value = "/stream", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> streamJob(InputStream body,
+                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            @RequestParam(value = "source", defaultValue = "stream") String source,
+                                            @RequestParam(value = "minEmployees", required = false) Long minEmployees,
+                                            @RequestParam(value = "filter", required = false) String filter,
+                                            @RequestParam(value = "delta", defaultValue = "false") boolean delta,
+                                            @RequestParam(value = "header", defaultValue = "true") boolean header,
+                                            @RequestParam(value = "priority", defaultValue = "NORMAL") JobPriority priority) throws InterruptedException {
+
+        // Validate before the job is queued, invalid expressions fail with 400 and a full queue with 429
+        OrganizationFilter.of(filter, minEmployees);
+        jobScheduler.ensureCapacity();
+
+        IngestionStream stream = ingestionStreams.open(source, IngestionStream.Format.of(contentType));
+        log.info("Streaming {} from {} into stream {}", stream.getFormat(), source, stream.getId());
+
+        // Publish the event to queue the job, it takes the lines while the body is read below
+        try {
+            applicationEventPublisher.publishEvent(RestStreamEvent.builder().streamId(stream.getId()).source(source)
+                    .minEmployees(minEmployees).filter(filter).delta(delta).priority(priority).build());
+        } catch (RuntimeException e) {
+            ingestionStreams.close(stream.getId(), null, e);
+            throw e;
+        }
+
+        IngestionStreams.Result result = ingestionStreams.ingest(stream, body, header);
+        JobExecution jobExecution = result.jobExecution();
+        if (jobExecution == null) {
+            return ResponseEntity.accepted().body(result.lines() + " lines received, the import of stream " + stream.getId() + " has not finished yet");
+        }
+
+        long written = jobExecution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum();
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return ResponseEntity.internalServerError().body("Job execution " + jobExecution.getId() + " ended with " + jobExecution.getStatus()
+                    + " after " + result.lines() + " lines, " + written + " organizations were committed: " + jobExecution.getExitStatus().getExitDescription());
+        }
+
+        return ResponseEntity.ok(result.lines() + " lines imported by job execution " + jobExecution.getId() + ", " + written + " organizations written");
+    }
+
+    @Operation(summary = "Export Organizations", description = "Stream all organizations as csv, optionally gzip compressed", tags = {"Batch"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+
+        log.info("Streaming the export, gzip: {}", gzip);
+
+        // Rows are written page by page while they are read, nothing is buffered for the whole response
+        StreamingResponseBody body = outputStream -> organizationExportService.export(outputStream, gzip);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"organizations.csv" + (gzip ? ".gz\"" : "\""))
+                .contentType(gzip ? MediaType.APPLICATION_OCTET_STREAM : new MediaType("text", "csv"))
+                .body(body);
+    }
+
+    @Operation(summary = "Export Job", description = "Export all organizations to a csv file in the export directory with a partitioned job", tags = {"Batch"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @ApiResponse(responseCode = "429", description = "HTTP Status 429 Too Many Requests, job queue is full, retry after the Retry-After seconds")
+    @PostMapping(value = "/export", consumes = MediaType.ALL_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> startExportJob(@RequestParam("fileName") String fileName,
+                                                 @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                 @RequestParam(value = "priority", defaultValue = "NORMAL") JobPriority priority) {
+
+        log.info("Starting the export job to: {}", fileName);
+
+        // Validate the file name before the job is queued, names outside the export directory fail with 400
+        organizationExportService.resolve(fileName);
+
+        // Publish the event to queue the job
+        applicationEventPublisher.publishEvent(RestExportEvent.builder().fileName(fileName).gzip(gzip).priority(priority).build());
+
+        return ResponseEntity.ok("Export job queued successfully to: " + fileName);
+    }
+
+    @Operation(summary = "Rejected Rows", description = "Rows of a job execution that could not be read or written, with their error (batch.fault-tolerance)", tags = {"Batch"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping(value = "/rejects/{jobExecutionId}")
+    public ResponseEntity<List<OrganizationRejects.Reject>> rejects(@PathVariable("jobExecutionId") Long jobExecutionId) {
+        return ResponseEntity.ok(organizationRejects.rejects(jobExecutionId));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+
+    @ExceptionHandler(IngestionStreamStalledException.class)
+    public ResponseEntity<String> handleIngestionStreamStalled(IngestionStreamStalledException exception) {
+
+        log.warn("Stream rejected: {}", exception.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(JobSchedulerSaturatedException.class)
+    public ResponseEntity<String> handleJobSchedulerSaturated(JobSchedulerSaturatedException exception) {
+
+        log.warn("Job rejected: {}", exception.getMessage());
 
-        return ResponseEntity.ok("Job started successfully with file upload: " + multipartFile.getOriginalFilename());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter().toSeconds()))
+                .body(exception.getMessage());
     }
 }
@@ -0,0 +1,57 @@
+package com.vedha.controller;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.OrganizationQueryService;
+import com.vedha.service.OrganizationSummaryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/organizations")
+@RequiredArgsConstructor
+@Tag(name = "Organization", description = "Organization API")
+public class OrganizationController {
+
+    private final OrganizationQueryService organizationQueryService;
+
+    private final OrganizationSummaryService organizationSummaryService;
+
+    @Operation(summary = "Find Organizations", description = "Paged organizations ordered by id, filtered by country, industry and employee range", tags = {"Organization"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @ApiResponse(responseCode = "400", description = "HTTP Status 400 Bad Request, invalid page or size")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PagedModel<OrganizationEntity>> findOrganizations(@RequestParam(value = "country", required = false) String country,
+                                                                            @RequestParam(value = "industry", required = false) String industry,
+                                                                            @RequestParam(value = "minEmployees", required = false) Long minEmployees,
+                                                                            @RequestParam(value = "maxEmployees", required = false) Long maxEmployees,
+                                                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                            @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(organizationQueryService.find(country, industry, minEmployees, maxEmployees, page, size));
+    }
+
+    @Operation(summary = "Organization Summaries", description = "Organization count and headcount by country, industry or founded_decade, precomputed by imports with aggregation enabled", tags = {"Organization"})
+    @ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @ApiResponse(responseCode = "400", description = "HTTP Status 400 Bad Request, unknown dimension")
+    @GetMapping(value = "/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OrganizationSummaryService.Summary>> findSummaries(@RequestParam(value = "dimension", defaultValue = "country") String dimension,
+                                                                                 @RequestParam(value = "source", required = false) String source) {
+
+        return ResponseEntity.ok(organizationSummaryService.summaries(dimension, source));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+}
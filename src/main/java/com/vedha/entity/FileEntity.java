@@ -1,5 +1,6 @@
 package com.vedha.entity;
 
+import com.vedha.service.FileCompression;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.proxy.HibernateProxy;
@@ -24,10 +25,16 @@ public class FileEntity {
 
     private String fileType;
 
-    private Long fileSize;
+    private Long fileSize; // size of the csv content
 
-    @Lob
-    private byte[] fileData;
+    private String contentHash; // sha-256 of the csv content, the same for a plain and a compressed upload
+
+    @Enumerated(EnumType.STRING)
+    private FileCompression compression; // of the stored data, GZIP or NONE
+
+    private Long compressedSize; // size of the stored data
+
+    // file_data BLOB column is streamed by FileStorageService, mapping it here would load the whole file into the heap
 
     @Override
     public final boolean equals(Object o) {
@@ -17,23 +17,39 @@ import java.util.Objects;
 public class OrganizationEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organizations_seq") // IDENTITY disables jdbc batching in hibernate
+    @SequenceGenerator(name = "organizations_seq", sequenceName = "organizations_seq", allocationSize = 50)
     private Long id;
 
+    private String organizationId; // unique, key of the upsert
+
     private String name;
 
     private String website;
 
+    @Transient // stored as countryId, see OrganizationDictionaries
     private String country;
 
+    private Integer countryId;
+
     private String description;
 
+    @Transient // stored as foundedId
     private String founded;
 
+    private Integer foundedId;
+
+    @Transient // stored as industryId
     private String industry;
 
+    private Integer industryId;
+
     private Long employees;
 
+    private String source; // file the row was imported from
+
+    private Long rowHash; // hash of the csv fields, to skip unchanged rows in a delta import
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
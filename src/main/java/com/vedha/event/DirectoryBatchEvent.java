@@ -0,0 +1,17 @@
+package com.vedha.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryBatchEvent {
+
+    private String directory; // batch directory holding the files of one job
+
+    private int files;
+}
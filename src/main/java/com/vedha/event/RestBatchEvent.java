@@ -1,5 +1,6 @@
 package com.vedha.event;
 
+import com.vedha.service.JobScheduler.JobPriority;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,4 +13,9 @@ import lombok.NoArgsConstructor;
 public class RestBatchEvent {
 
     private Long minEmployees;
+
+    private String filter;
+
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
 }
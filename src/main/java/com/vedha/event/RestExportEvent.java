@@ -0,0 +1,21 @@
+package com.vedha.event;
+
+import com.vedha.service.JobScheduler.JobPriority;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestExportEvent {
+
+    private String fileName;
+
+    private boolean gzip;
+
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
+}
@@ -0,0 +1,27 @@
+package com.vedha.event;
+
+import com.vedha.service.JobScheduler.JobPriority;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestStreamEvent {
+
+    private String streamId;
+
+    private String source;
+
+    private Long minEmployees;
+
+    private String filter;
+
+    private boolean delta;
+
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
+}
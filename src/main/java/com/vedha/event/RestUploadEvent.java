@@ -1,10 +1,10 @@
 package com.vedha.event;
 
+import com.vedha.service.JobScheduler.JobPriority;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.web.multipart.MultipartFile;
 
 @Data
 @Builder
@@ -12,5 +12,10 @@ import org.springframework.web.multipart.MultipartFile;
 @AllArgsConstructor
 public class RestUploadEvent {
 
-    private MultipartFile multipartFile;
+    private Long fileId;
+
+    private String fileName;
+
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
 }
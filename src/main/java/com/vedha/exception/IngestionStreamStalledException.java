@@ -0,0 +1,8 @@
+package com.vedha.exception;
+
+public class IngestionStreamStalledException extends RuntimeException {
+
+    public IngestionStreamStalledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.vedha.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class JobSchedulerSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public JobSchedulerSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,305 @@
+package com.vedha.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.*;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+// Publishes chunk, read, process and write timers, item counters and live rows/sec gauges to micrometer,
+// tagged by job and step name, available on /actuator/metrics/batch.* and /actuator/prometheus.
+// Uses the listener annotations instead of the interfaces, so it can be registered with a single listener(Object) call on the chunk steps
+@Component
+@RequiredArgsConstructor
+public class BatchMetricsListener {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, StepMeters> metersByStep = new ConcurrentHashMap<>();
+
+    private final Map<Long, StepMeters> metersByExecution = new ConcurrentHashMap<>();
+
+    // filter count of the step execution already added to batch.items.filtered
+    private final Map<Long, AtomicLong> filteredByExecution = new ConcurrentHashMap<>();
+
+    // chunks and items are always processed on one thread from start to end
+    private final ThreadLocal<Timer.Sample> chunkSample = new ThreadLocal<>();
+
+    private final ThreadLocal<Timer.Sample> readSample = new ThreadLocal<>();
+
+    private final ThreadLocal<Timer.Sample> processSample = new ThreadLocal<>();
+
+    private final ThreadLocal<Timer.Sample> writeSample = new ThreadLocal<>();
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+
+        StepMeters stepMeters = metersByStep.computeIfAbsent(stepExecution.getJobExecution().getJobInstance().getJobName() + "/" + stepName(stepExecution),
+                key -> new StepMeters(meterRegistry, Tags.of("job", stepExecution.getJobExecution().getJobInstance().getJobName(), "step", stepName(stepExecution))));
+
+        stepMeters.running.add(stepExecution);
+        metersByExecution.put(stepExecution.getId(), stepMeters);
+        filteredByExecution.put(stepExecution.getId(), new AtomicLong(stepExecution.getFilterCount()));
+    }
+
+    @AfterStep
+    public ExitStatus afterStep(StepExecution stepExecution) {
+
+        StepMeters stepMeters = metersByExecution.remove(stepExecution.getId());
+        if (stepMeters != null) {
+            filtered(stepExecution, stepMeters);
+            stepMeters.running.remove(stepExecution);
+        }
+        filteredByExecution.remove(stepExecution.getId());
+
+        return stepExecution.getExitStatus();
+    }
+
+    @BeforeChunk
+    public void beforeChunk(ChunkContext context) {
+        chunkSample.set(Timer.start(meterRegistry));
+    }
+
+    // the chunk is committed, the filter count of the step execution includes the items filtered by the reader,
+    // the processor and the writer, also those of the read ahead pipeline which never reach afterProcess
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        StepMeters stepMeters = metersByExecution.get(stepExecution.getId());
+        if (stepMeters != null) {
+            stop(chunkSample, stepMeters.chunk);
+            filtered(stepExecution, stepMeters);
+        }
+    }
+
+    @AfterChunkError
+    public void afterChunkError(ChunkContext context) {
+
+        StepMeters stepMeters = meters();
+        if (stepMeters != null) {
+            stop(chunkSample, stepMeters.chunkFailed);
+            stepMeters.rolledBack.increment();
+        }
+    }
+
+    @BeforeRead
+    public void beforeRead() {
+        readSample.set(Timer.start(meterRegistry));
+    }
+
+    @AfterRead
+    public void afterRead(Object item) {
+
+        StepMeters stepMeters = meters();
+        if (stepMeters != null) {
+            stop(readSample, stepMeters.read);
+            stepMeters.itemsRead.increment();
+        }
+    }
+
+    @OnReadError
+    public void onReadError(Exception e) {
+        readSample.remove();
+    }
+
+    @BeforeProcess
+    public void beforeProcess(Object item) {
+        processSample.set(Timer.start(meterRegistry));
+    }
+
+    @AfterProcess
+    public void afterProcess(Object item, Object result) {
+
+        StepMeters stepMeters = meters();
+        if (stepMeters != null) {
+            stop(processSample, stepMeters.process);
+        }
+    }
+
+    @OnProcessError
+    public void onProcessError(Object item, Exception e) {
+        processSample.remove();
+    }
+
+    @BeforeWrite
+    public void beforeWrite(Chunk<?> items) {
+        writeSample.set(Timer.start(meterRegistry));
+    }
+
+    @AfterWrite
+    public void afterWrite(Chunk<?> items) {
+
+        StepMeters stepMeters = meters();
+        if (stepMeters != null) {
+            stop(writeSample, stepMeters.write);
+            stepMeters.itemsWritten.increment(items.size());
+        }
+    }
+
+    @OnWriteError
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        writeSample.remove();
+    }
+
+    @OnSkipInRead
+    public void onSkipInRead(Throwable t) {
+        skipped();
+    }
+
+    @OnSkipInProcess
+    public void onSkipInProcess(Object item, Throwable t) {
+        skipped();
+    }
+
+    @OnSkipInWrite
+    public void onSkipInWrite(Object item, Throwable t) {
+        skipped();
+    }
+
+    // the chunks of a multithreaded step complete concurrently, a thread may see an older filter count than the last one added
+    private void filtered(StepExecution stepExecution, StepMeters stepMeters) {
+
+        AtomicLong added = filteredByExecution.get(stepExecution.getId());
+        if (added != null) {
+            long filterCount = stepExecution.getFilterCount();
+            long previous = added.getAndAccumulate(filterCount, Math::max);
+            if (filterCount > previous) {
+                stepMeters.itemsFiltered.increment(filterCount - previous);
+            }
+        }
+    }
+
+    private void skipped() {
+
+        StepMeters stepMeters = meters();
+        if (stepMeters != null) {
+            stepMeters.itemsSkipped.increment();
+        }
+    }
+
+    private StepMeters meters() {
+
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        return stepContext == null ? null : metersByExecution.get(stepContext.getStepExecution().getId());
+    }
+
+    private static void stop(ThreadLocal<Timer.Sample> sample, Timer timer) {
+
+        Timer.Sample started = sample.get();
+        if (started != null) {
+            started.stop(timer);
+            sample.remove();
+        }
+    }
+
+    // partitions run as csvImporterStep:partition0, csvImporterStep:partition1 ... they are reported as one step
+    private static String stepName(StepExecution stepExecution) {
+
+        String stepName = stepExecution.getStepName();
+        int partition = stepName.indexOf(':');
+
+        return partition < 0 ? stepName : stepName.substring(0, partition);
+    }
+
+    private static class StepMeters {
+
+        private final Set<StepExecution> running = ConcurrentHashMap.newKeySet();
+
+        private final Timer chunk;
+
+        private final Timer chunkFailed;
+
+        private final Timer read;
+
+        private final Timer process;
+
+        private final Timer write;
+
+        private final Counter itemsRead;
+
+        private final Counter itemsWritten;
+
+        private final Counter itemsFiltered;
+
+        private final Counter itemsSkipped;
+
+        private final Counter rolledBack;
+
+        StepMeters(MeterRegistry meterRegistry, Tags tags) {
+
+            chunk = timer("batch.chunk", "Chunk transaction time", tags.and("outcome", "success"), meterRegistry);
+            chunkFailed = timer("batch.chunk", "Chunk transaction time", tags.and("outcome", "failure"), meterRegistry);
+            read = timer("batch.item.read", "Item read time", tags, meterRegistry);
+            process = timer("batch.item.process", "Item process time", tags, meterRegistry);
+            write = timer("batch.chunk.write", "Chunk write time", tags, meterRegistry);
+
+            itemsRead = counter("batch.items.read", "Items read", tags, meterRegistry);
+            itemsWritten = counter("batch.items.written", "Items written", tags, meterRegistry);
+            itemsFiltered = counter("batch.items.filtered", "Items filtered by the reader, the processor and the writer", tags, meterRegistry);
+            itemsSkipped = counter("batch.items.skipped", "Items skipped by the fault tolerance", tags, meterRegistry);
+            rolledBack = counter("batch.chunks.rolledback", "Chunks rolled back", tags, meterRegistry);
+
+            Gauge.builder("batch.step.read.rate", this, stepMeters -> stepMeters.rate(StepExecution::getReadCount))
+                    .description("Rows read per second by the running executions of the step")
+                    .baseUnit("rows/s")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("batch.step.write.rate", this, stepMeters -> stepMeters.rate(StepExecution::getWriteCount))
+                    .description("Rows written per second by the running executions of the step")
+                    .baseUnit("rows/s")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private double rate(ToLongFunction<StepExecution> count) {
+
+            double rate = 0;
+            for (StepExecution stepExecution : running) {
+
+                LocalDateTime startTime = stepExecution.getStartTime();
+                if (startTime != null) {
+
+                    long millis = Math.max(1, Duration.between(startTime, LocalDateTime.now()).toMillis());
+                    rate += count.applyAsLong(stepExecution) * 1000.0 / millis;
+                }
+            }
+
+            return rate;
+        }
+
+        private static Timer timer(String name, String description, Tags tags, MeterRegistry meterRegistry) {
+
+            return Timer.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private static Counter counter(String name, String description, Tags tags, MeterRegistry meterRegistry) {
+
+            return Counter.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+    }
+}
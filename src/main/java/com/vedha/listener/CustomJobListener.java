@@ -1,24 +1,61 @@
 package com.vedha.listener;
 
+import com.vedha.config.JobRepositories;
+import com.vedha.service.OrganizationIdFilter;
+import com.vedha.service.OrganizationQueryService;
+import com.vedha.service.OrganizationRejects;
+import com.vedha.service.OrganizationSummaryService;
+import com.vedha.service.RowHashIndex;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CustomJobListener implements JobExecutionListener {
 
+    private final OrganizationIdFilter organizationIdFilter;
+
+    private final RowHashIndex rowHashIndex;
+
+    private final OrganizationQueryService organizationQueryService;
+
+    private final OrganizationSummaryService organizationSummaryService;
+
+    private final OrganizationRejects organizationRejects;
+
+    private final JobRepositories jobRepositories;
+
     @Override
     public void beforeJob(JobExecution jobExecution) {
 
-        log.error("Job started {}", jobExecution.getJobInstance().getJobName());
+        log.info("Job started {}", jobExecution.getJobInstance().getJobName());
     }
 
     @Override
     public void afterJob(JobExecution jobExecution) {
 
+        organizationIdFilter.release(jobExecution.getId());
+        rowHashIndex.release(jobExecution.getId());
+
+        long rejects = organizationRejects.release(jobExecution.getId());
+        if (rejects > 0) {
+            log.warn("{} rows rejected by job execution {}, see GET /api/batch/rejects/{}", rejects, jobExecution.getId(), jobExecution.getId());
+        }
+        organizationSummaryService.complete(jobExecution, restarted(jobExecution)); // upserts the summaries of a completed aggregating import
+
+        // failed jobs have committed chunks too, cached query pages are cleared whenever something was written
+        // (export jobs included, they are rare and the cache warms up again quickly)
+        if (jobExecution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum() > 0) {
+            organizationQueryService.evictAll();
+        }
+
         if (jobExecution.getStatus().isRunning()) {
 
             jobExecution.setExitStatus(new ExitStatus(jobExecution.getExitStatus().getExitCode(), "Job is still running"));
@@ -30,7 +67,14 @@ public class CustomJobListener implements JobExecutionListener {
         } else {
 
             jobExecution.setExitStatus(new ExitStatus(jobExecution.getExitStatus().getExitCode(), "Job completed successfully"));
-            log.error("Job completed {}", jobExecution.getJobInstance());
+            log.info("Job completed {}", jobExecution.getJobInstance());
         }
     }
+
+    // the job instance has executions before this one
+    private boolean restarted(JobExecution jobExecution) {
+
+        JobInstance jobInstance = jobExecution.getJobInstance();
+        return jobRepositories.forJob(jobInstance.getJobName()).findJobExecutions(jobInstance).size() > 1;
+    }
 }
@@ -13,7 +13,7 @@ public class CustomStepListener implements StepExecutionListener {
     @Override
     public void beforeStep(StepExecution stepExecution) {
 
-        log.warn("Step execution started for step: {}", stepExecution.getStepName());
+        log.info("Step execution started for step: {}", stepExecution.getStepName());
     }
 
     @Override
@@ -30,25 +30,10 @@ public class CustomStepListener implements StepExecutionListener {
         } else {
 
             stepExecution.setExitStatus(new ExitStatus(stepExecution.getExitStatus().getExitCode(), "Step completed successfully"));
-            log.error("Step completed {}", stepExecution.getSummary());
+            log.info("Step completed {}", stepExecution.getSummary());
         }
 
-//        log.warn("Step execution completed for step: {}", stepExecution.getStepName());
-//        log.warn("Step execution status: {}", stepExecution.getStatus());
-//        log.warn("Step execution exit status: {}", stepExecution.getExitStatus());
-//
-//        log.warn("Step execution read count: {}", stepExecution.getReadCount());
-//        log.warn("Step execution write count: {}", stepExecution.getWriteCount());
-//        log.warn("Step execution commit count: {}", stepExecution.getCommitCount());
-//        log.warn("Step execution rollback count: {}", stepExecution.getRollbackCount());
-//
-//        log.warn("Step execution filter count: {}", stepExecution.getFilterCount());
-//        log.warn("Step execution skip count: {}", stepExecution.getSkipCount());
-//        log.warn("Step execution process skip count: {}", stepExecution.getProcessSkipCount());
-//        log.warn("Step execution read skip count: {}", stepExecution.getReadSkipCount());
-//        log.warn("Step execution write skip count: {}", stepExecution.getWriteSkipCount());
-
-        log.warn("Step execution summary: {}", stepExecution.getSummary());
+        // detailed counters and timings are published by BatchMetricsListener
 
         return stepExecution.getExitStatus();
     }
@@ -0,0 +1,40 @@
+package com.vedha.listener;
+
+import com.vedha.partition.DirectoryPartitioner;
+import com.vedha.service.DirectoryWatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+// Status of every file of a directory batch, its partition step moves it to processed or failed when it ends
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DirectoryFileListener implements StepExecutionListener {
+
+    private final DirectoryWatcher directoryWatcher;
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+
+        String fileLocation = stepExecution.getExecutionContext().getString(DirectoryPartitioner.FILE_LOCATION, null);
+        if (fileLocation == null) {
+            return null;
+        }
+
+        boolean successful = stepExecution.getStatus() == BatchStatus.COMPLETED;
+        log.info("File {} {}, {} read, {} written, {} filtered", stepExecution.getExecutionContext().getString(DirectoryPartitioner.FILE_NAME),
+                successful ? "imported" : "failed", stepExecution.getReadCount(), stepExecution.getWriteCount(), stepExecution.getFilterCount());
+
+        directoryWatcher.complete(Path.of(URI.create(fileLocation)), successful);
+
+        return null;
+    }
+}
@@ -1,90 +1,213 @@
 package com.vedha.listener;
 
-import com.vedha.entity.FileEntity;
+import com.vedha.config.JobRepositories;
+import com.vedha.event.DirectoryBatchEvent;
 import com.vedha.event.RestBatchEvent;
+import com.vedha.event.RestExportEvent;
+import com.vedha.event.RestStreamEvent;
 import com.vedha.event.RestUploadEvent;
-import com.vedha.repository.FileRepository;
+import com.vedha.service.ContentFingerprint;
+import com.vedha.service.IngestionStreams;
+import com.vedha.service.JobScheduler;
+import com.vedha.service.JobScheduler.JobPriority;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RunBatchListener {
 
-    private final FileRepository fileRepository;
+    private static final String STARTUP_FILE = "/files/organizations.csv";
 
     private final Job restCsvUploadImporterJob;
 
-    private final JobLauncher jobLauncher;
+    // launcher of the job repository each job uses, batch.metadata
+    private final JobRepositories jobRepositories;
 
     private final Job restCsvImporterJob;
 
     private final Job csvImporterJob;
 
-    @Async
+    private final Job csvExportJob;
+
+    private final Job directoryImporterJob;
+
+    private final Job streamImporterJob;
+
+    private final IngestionStreams ingestionStreams;
+
+    // jobs are queued in the scheduler instead of @Async, so the number of running jobs is bounded
+    private final JobScheduler jobScheduler;
+
+    @Value("${batch.startup-import.enabled:true}")
+    private boolean startupImportEnabled;
+
+    // deferred, so a freshly started instance takes its first jobs before the startup import
+    @Value("${batch.startup-import.delay:0s}")
+    private Duration startupImportDelay;
+
+    // summaries of the imported organizations, see OrganizationSummaryService
+    @Value("${batch.aggregation.enabled:false}")
+    private boolean aggregationEnabled;
+
+    // partials of partitions run by other instances would be missing, partitioned jobs only aggregate with local partitioning
+    @Value("${batch.partitioning.mode:local}")
+    private String partitioningMode;
+
     @EventListener(ApplicationReadyEvent.class) // Trigger the job when the application is ready
-    public void onApplicationEvent() throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException,
-            JobParametersInvalidException, JobRestartException {
+    public void onApplicationEvent() throws IOException {
+
+        if (!startupImportEnabled) {
+
+            log.info("Startup import is disabled");
+            return;
+        }
+
+        if (startupImportDelay.isPositive()) {
+
+            log.info("Startup import in {}", startupImportDelay);
+            CompletableFuture.runAsync(() -> {
+                try {
+                    startupImport();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Startup import failed", e);
+                }
+            }, CompletableFuture.delayedExecutor(startupImportDelay.toMillis(), TimeUnit.MILLISECONDS));
+            return;
+        }
+
+        startupImport();
+    }
+
+    private void startupImport() throws IOException {
+
+        // contentHash identifies the job instance, an unchanged file is not imported again (job instance already complete),
+        // a changed file only writes its new and changed rows
+        String contentHash = ContentFingerprint.sha256(new ClassPathResource(STARTUP_FILE).getInputStream());
+        Long minEmployees = 1000L;
 
         // Trigger the job
-        jobLauncher.run(csvImporterJob, new JobParametersBuilder()
-                .addString("fileClassPath", "/files/organizations.csv")
-                .addLong("minEmployees", 1000L)
+        jobScheduler.submit(csvImporterJob.getName(), JobPriority.LOW, () -> jobRepositories.launcherFor(csvImporterJob.getName()).run(csvImporterJob, new JobParametersBuilder()
+                .addString("fileClassPath", STARTUP_FILE)
+                .addLong("minEmployees", minEmployees)
+                .addString("contentHash", contentHash)
+                .addString("delta", "true")
+                .addString("aggregate", "false") // only the rows with minEmployees are imported, they would replace the summaries of the whole file
                 .toJobParameters()
-        );
+        ));
     }
 
-    @Async
+    // not async, a full queue is reported back to the caller of the api
     @EventListener
-    public void onRestBatchEvent(RestBatchEvent restBatchEvent) throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException,
-            JobParametersInvalidException, JobRestartException {
+    public void onRestBatchEvent(RestBatchEvent restBatchEvent) {
 
         // Trigger the job
-        jobLauncher.run(restCsvImporterJob, new JobParametersBuilder()
-                .addString("fileClassPath", "/files/organizations.csv")
+        jobScheduler.submit(restCsvImporterJob.getName(), restBatchEvent.getPriority(), () -> jobRepositories.launcherFor(restCsvImporterJob.getName()).run(restCsvImporterJob, new JobParametersBuilder()
+                .addString("fileClassPath", STARTUP_FILE)
                 .addLong("minEmployees", restBatchEvent.getMinEmployees())
+                .addString("filter", restBatchEvent.getFilter() != null ? restBatchEvent.getFilter() : "")
+                .addString("aggregate", String.valueOf(aggregate(aggregationEnabled, restBatchEvent.getFilter(), restBatchEvent.getMinEmployees())))
                 .toJobParameters()
-        );
+        ));
     }
 
-    @Async
     @EventListener
-    public void onRestUploadBatchEvent(RestUploadEvent restUploadEvent) throws IOException, JobInstanceAlreadyCompleteException,
-            JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+    public void onRestUploadBatchEvent(RestUploadEvent restUploadEvent) {
 
-        MultipartFile multipartFile = restUploadEvent.getMultipartFile();
-        log.info("Received file: {}", multipartFile.getOriginalFilename());
+        // File is already stored by the controller
+        log.info("Received file: {} with id: {}", restUploadEvent.getFileName(), restUploadEvent.getFileId());
 
-        // Save the file to the database
-        FileEntity build = FileEntity.builder()
-                .fileName(multipartFile.getOriginalFilename())
-                .fileType(multipartFile.getContentType())
-                .fileSize(multipartFile.getSize())
-                .fileData(multipartFile.getBytes())
-                .build();
+        // Trigger the job
+        // delta import against the previous upload with the same file name
+        jobScheduler.submit(restCsvUploadImporterJob.getName(), restUploadEvent.getPriority(), () -> jobRepositories.launcherFor(restCsvUploadImporterJob.getName()).run(restCsvUploadImporterJob, new JobParametersBuilder()
+                .addLong("fileId", restUploadEvent.getFileId())
+                .addString("fileName", restUploadEvent.getFileName())
+                .addString("delta", "true")
+                .addString("aggregate", String.valueOf(aggregationEnabled))
+                .toJobParameters()
+        ));
+    }
+
+    @EventListener
+    public void onRestExportEvent(RestExportEvent restExportEvent) {
+
+        // Trigger the job
+        // requestedAt makes every export a new job instance, the table may have changed since the previous export
+        jobScheduler.submit(csvExportJob.getName(), restExportEvent.getPriority(), () -> jobRepositories.launcherFor(csvExportJob.getName()).run(csvExportJob, new JobParametersBuilder()
+                .addString("fileName", restExportEvent.getFileName())
+                .addString("gzip", String.valueOf(restExportEvent.isGzip()))
+                .addLong("requestedAt", System.currentTimeMillis())
+                .toJobParameters()
+        ));
+    }
+
+    // a full queue is thrown back to DirectoryWatcher, the files are retried with a later batch
+    @EventListener
+    public void onDirectoryBatchEvent(DirectoryBatchEvent directoryBatchEvent) {
 
-        FileEntity save = fileRepository.save(build);
+        log.info("Received {} files in {}", directoryBatchEvent.getFiles(), directoryBatchEvent.getDirectory());
 
         // Trigger the job
-        jobLauncher.run(restCsvUploadImporterJob, new JobParametersBuilder()
-                .addLong("fileId", save.getId())
+        // the batch directory is unique, every batch is a new job instance
+        jobScheduler.submit(directoryImporterJob.getName(), JobPriority.NORMAL, () -> jobRepositories.launcherFor(directoryImporterJob.getName()).run(directoryImporterJob, new JobParametersBuilder()
+                .addString("directory", directoryBatchEvent.getDirectory())
+                .addString("delta", "true")
+                .addString("aggregate", String.valueOf(partitionedAggregation()))
                 .toJobParameters()
-        );
+        ));
     }
 
+    // the request thread waits for the job of its stream, the stream is closed however the launch ends
+    @EventListener
+    public void onRestStreamEvent(RestStreamEvent restStreamEvent) {
+
+        log.info("Receiving stream {} from {}", restStreamEvent.getStreamId(), restStreamEvent.getSource());
+
+        // Trigger the job
+        // the stream id is unique, every stream is a new job instance
+        // minEmployees is optional, every row of the stream is imported without it
+        JobParametersBuilder jobParameters = new JobParametersBuilder()
+                .addString("streamId", restStreamEvent.getStreamId())
+                .addString("source", restStreamEvent.getSource())
+                .addString("filter", restStreamEvent.getFilter() != null ? restStreamEvent.getFilter() : "")
+                .addString("delta", String.valueOf(restStreamEvent.isDelta()))
+                .addString("aggregate", String.valueOf(aggregate(aggregationEnabled, restStreamEvent.getFilter(), restStreamEvent.getMinEmployees())));
+        if (restStreamEvent.getMinEmployees() != null) {
+            jobParameters.addLong("minEmployees", restStreamEvent.getMinEmployees());
+        }
+
+        jobScheduler.submit(streamImporterJob.getName(), restStreamEvent.getPriority(), () -> {
+            try {
+                JobExecution jobExecution = jobRepositories.launcherFor(streamImporterJob.getName()).run(streamImporterJob, jobParameters.toJobParameters());
+                ingestionStreams.close(restStreamEvent.getStreamId(), jobExecution, null);
+                return jobExecution;
+            } catch (Exception e) {
+                ingestionStreams.close(restStreamEvent.getStreamId(), null, e);
+                throw e;
+            }
+        });
+    }
+
+    private boolean partitionedAggregation() {
+        return aggregationEnabled && "local".equalsIgnoreCase(partitioningMode);
+    }
+
+    // the summaries of an import replace all summaries of its source, an import of only some rows (filter, minEmployees) does not aggregate
+    private static boolean aggregate(boolean enabled, String filter, Long minEmployees) {
+        return enabled && (filter == null || filter.isBlank()) && minEmployees == null;
+    }
 }
@@ -0,0 +1,112 @@
+package com.vedha.partition;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Exposes the bytes [start, end) of another resource, so each partition can get its own FlatFileItemReader
+public class ByteRangeResource extends AbstractResource {
+
+    private final Resource delegate;
+
+    private final long start;
+
+    private final long end;
+
+    public ByteRangeResource(Resource delegate, long start, long end) {
+        this.delegate = delegate;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return delegate.isReadable();
+    }
+
+    @Override
+    public long contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public String getDescription() {
+        return "bytes [" + start + ", " + end + ") of " + delegate.getDescription();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+
+        InputStream inputStream = delegate.getInputStream();
+        inputStream.skipNBytes(start);
+
+        return new BoundedInputStream(inputStream, end - start);
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int read = super.read();
+            if (read != -1) {
+                remaining--;
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.vedha.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Splits a csv file into byte ranges that start and end on record boundaries,
+// the header line is excluded so every partition reader can start reading rows straight away.
+// The file is scanned from the start, a '\n' inside a quoted field is not a boundary, whether it is depends on all quotes before it
+@Slf4j
+public class CsvByteRangePartitioner implements Partitioner {
+
+    public static final String PARTITION_INDEX = "partitionIndex";
+
+    public static final String START_BYTE = "startByte";
+
+    public static final String END_BYTE = "endByte";
+
+    private final Resource resource;
+
+    private final Integer partitionCount; // null means use the grid size of the partition handler
+
+    public CsvByteRangePartitioner(Resource resource, Integer partitionCount) {
+        this.resource = resource;
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+
+        int partitions = Math.max(1, partitionCount != null ? partitionCount : gridSize);
+
+        try (InputStream inputStream = new BufferedInputStream(resource.getInputStream(), 64 * 1024)) {
+
+            long length = resource.contentLength();
+            RecordScanner scanner = new RecordScanner(inputStream);
+            long position = scanner.nextRecord(0); // header
+            long rangeSize = (length - position) / partitions;
+
+            Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+            long start = position;
+
+            for (int i = 0; i < partitions && start < length; i++) {
+
+                long end = length;
+                if (i < partitions - 1 && start + rangeSize < length) {
+
+                    end = scanner.nextRecord(Math.max(start, start + rangeSize - 1)); // move to the start of the next record
+                }
+
+                ExecutionContext executionContext = new ExecutionContext();
+                executionContext.putInt(PARTITION_INDEX, i);
+                executionContext.putLong(START_BYTE, start);
+                executionContext.putLong(END_BYTE, end);
+                contexts.put("partition" + i, executionContext);
+
+                start = end;
+            }
+
+            log.info("{} split into {} partitions of ~{} bytes", resource.getDescription(), contexts.size(), rangeSize);
+
+            return contexts;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to partition " + resource.getDescription(), e);
+        }
+    }
+
+    // quotes and newlines are single bytes in utf-8, they never occur inside a multibyte character.
+    // An escaped quote ("") toggles twice and leaves the state as it was
+    private static class RecordScanner {
+
+        private final InputStream inputStream;
+
+        private long position;
+
+        private boolean quoted;
+
+        RecordScanner(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        // reads up to and including the first '\n' outside quotes at or after target and returns the position after it
+        long nextRecord(long target) throws IOException {
+
+            int read;
+            while ((read = inputStream.read()) != -1) {
+                position++;
+                if (read == '"') {
+                    quoted = !quoted;
+                } else if (read == '\n' && !quoted && position > target) {
+                    break;
+                }
+            }
+
+            return position;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.vedha.partition;
+
+import com.vedha.service.PartitionQueue;
+import com.vedha.service.PartitionQueue.Claim;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Manager side of the database partitioning, the worker step executions are created as usual by the splitter,
+// then queued in batch_partitions for the PartitionWorkers of all instances. The manager polls until every partition is finished,
+// partitions of a worker that stopped sending heartbeats are failed and queued again with a new step execution,
+// which restarts from the execution context saved with the last committed chunk
+@Slf4j
+public class DatabasePartitionHandler implements PartitionHandler {
+
+    private final PartitionQueue partitionQueue;
+
+    private final JobExplorer jobExplorer;
+
+    private final JobRepository jobRepository;
+
+    private final String stepName;
+
+    private final int gridSize;
+
+    private final Duration pollInterval;
+
+    private final Duration workerTimeout;
+
+    private final int maxAttempts;
+
+    public DatabasePartitionHandler(PartitionQueue partitionQueue, JobExplorer jobExplorer, JobRepository jobRepository, String stepName, int gridSize,
+                                    Duration pollInterval, Duration workerTimeout, int maxAttempts) {
+        this.partitionQueue = partitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.stepName = stepName;
+        this.gridSize = gridSize;
+        this.pollInterval = pollInterval;
+        this.workerTimeout = workerTimeout;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+
+        JobExecution jobExecution = managerStepExecution.getJobExecution();
+
+        Set<StepExecution> partitions = stepSplitter.split(managerStepExecution, gridSize);
+        partitionQueue.enqueue(jobExecution.getId(), stepName, partitions.stream().map(StepExecution::getId).toList());
+        log.info("{} partitions of {} queued for the workers", partitions.size(), stepName);
+
+        while (true) {
+
+            Thread.sleep(pollInterval.toMillis());
+
+            if (managerStepExecution.isTerminateOnly()) {
+                throw new JobInterruptedException("Job interrupted while waiting for the workers");
+            }
+
+            for (Claim claim : partitionQueue.stale(jobExecution.getId(), workerTimeout)) {
+                reclaim(claim, jobExecution);
+            }
+
+            List<Claim> claims = partitionQueue.claims(jobExecution.getId());
+            if (claims.stream().allMatch(Claim::finished)) {
+
+                log.info("{} partitions of {} finished, {} failed", claims.size(), stepName, claims.stream().filter(claim -> claim.status() == PartitionQueue.Status.FAILED).count());
+                return claims.stream().map(claim -> jobExplorer.getStepExecution(jobExecution.getId(), claim.stepExecutionId())).toList();
+            }
+        }
+    }
+
+    private void reclaim(Claim claim, JobExecution jobExecution) {
+
+        if (!partitionQueue.revoke(claim, workerTimeout)) {
+            return; // the worker is alive after all
+        }
+
+        StepExecution lost = jobExplorer.getStepExecution(jobExecution.getId(), claim.stepExecutionId());
+        lost.setStatus(BatchStatus.FAILED);
+        lost.setExitStatus(ExitStatus.FAILED.addExitDescription("Worker " + claim.worker() + " stopped sending heartbeats"));
+        lost.setEndTime(LocalDateTime.now());
+        jobRepository.update(lost);
+
+        if (claim.attempts() >= maxAttempts) {
+            log.error("Partition {} failed, worker {} lost after {} attempts", lost.getStepName(), claim.worker(), claim.attempts());
+            return;
+        }
+
+        StepExecution retry = new StepExecution(lost.getStepName(), lost.getJobExecution());
+        retry.setExecutionContext(new ExecutionContext(lost.getExecutionContext()));
+        jobRepository.add(retry);
+        partitionQueue.requeue(claim, retry.getId());
+
+        log.warn("Partition {} reclaimed from worker {}, queued again", lost.getStepName(), claim.worker());
+    }
+}
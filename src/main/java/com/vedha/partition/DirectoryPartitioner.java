@@ -0,0 +1,57 @@
+package com.vedha.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// One partition per file of a directory, so every file gets its own worker step execution and status
+@Slf4j
+public class DirectoryPartitioner implements Partitioner {
+
+    public static final String FILE_LOCATION = "fileLocation";
+
+    public static final String FILE_NAME = "fileName";
+
+    private static final int MAX_NAME_LENGTH = 60; // partition name is part of the step name, limited to 100 chars
+
+    private final Path directory;
+
+    public DirectoryPartitioner(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to list " + directory, e);
+        }
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+
+            String fileName = files.get(i).getFileName().toString();
+
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(FILE_LOCATION, files.get(i).toUri().toString());
+            executionContext.putString(FILE_NAME, fileName);
+            contexts.put("file" + i + "-" + fileName.substring(0, Math.min(fileName.length(), MAX_NAME_LENGTH)), executionContext);
+        }
+
+        log.info("{} split into {} file partitions", directory, contexts.size());
+
+        return contexts;
+    }
+}
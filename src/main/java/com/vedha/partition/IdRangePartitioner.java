@@ -0,0 +1,67 @@
+package com.vedha.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Splits the id range of a table into contiguous ranges of equal width, partitions are in id order
+// so their outputs can be concatenated in partition order
+@Slf4j
+public class IdRangePartitioner implements Partitioner {
+
+    public static final String PARTITION_INDEX = "partitionIndex";
+
+    public static final String MIN_ID = "minId";
+
+    public static final String MAX_ID = "maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String table;
+
+    private final Integer partitionCount; // null means use the grid size of the partition handler
+
+    public IdRangePartitioner(JdbcTemplate jdbcTemplate, String table, Integer partitionCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+
+        long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM " + table,
+                (rs, rowNum) -> rs.getObject(1) == null ? new long[]{1, 0} : new long[]{rs.getLong(1), rs.getLong(2)});
+
+        return ranges(bounds[0], bounds[1], Math.max(1, partitionCount != null ? partitionCount : gridSize));
+    }
+
+    // inclusive ranges, an empty table gives a single empty range
+    static Map<String, ExecutionContext> ranges(long minId, long maxId, int partitions) {
+
+        long rangeSize = Math.max(1, (maxId - minId + partitions) / partitions);
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        long start = minId;
+        for (int i = 0; i < partitions && (start <= maxId || i == 0); i++) {
+
+            long end = i == partitions - 1 ? maxId : Math.min(maxId, start + rangeSize - 1);
+
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putInt(PARTITION_INDEX, i);
+            executionContext.putLong(MIN_ID, start);
+            executionContext.putLong(MAX_ID, end);
+            contexts.put("partition" + i, executionContext);
+
+            start = end + 1;
+        }
+
+        log.info("Ids [{}, {}] split into {} partitions of ~{} ids", minId, maxId, contexts.size(), rangeSize);
+
+        return contexts;
+    }
+}
@@ -0,0 +1,51 @@
+package com.vedha.pipeline;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Runs the delegate on the executor and returns straight away, the items of a chunk are processed in parallel
+// and OrderedFutureItemWriter collects them in read order, like AsyncItemProcessor of spring-batch-integration
+public class FanOutItemProcessor<I, O> implements ItemProcessor<I, Future<O>> {
+
+    private final ItemProcessor<I, O> delegate;
+
+    private final ExecutorService executorService;
+
+    private final PipelineStages stages;
+
+    public FanOutItemProcessor(ItemProcessor<I, O> delegate, ExecutorService executorService, PipelineStages stages) {
+        this.delegate = delegate;
+        this.executorService = executorService;
+        this.stages = stages;
+    }
+
+    @Override
+    public Future<O> process(I item) {
+
+        // step scoped delegates are resolved on the processing thread
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+
+        return executorService.submit(() -> {
+
+            if (stepExecution != null) {
+                StepSynchronizationManager.register(stepExecution);
+            }
+            stages.processing.incrementAndGet();
+
+            try {
+                return delegate.process(item);
+            } finally {
+                stages.processing.decrementAndGet();
+                if (stepExecution != null) {
+                    StepSynchronizationManager.close();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.vedha.pipeline;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Waits for the items of FanOutItemProcessor in read order and writes them in the chunk transaction.
+// Filtered items are removed from the chunk, so the write count of the step stays exact, and added to the filter count
+// in update, with the step lock held, as FilteringItemStreamReader does, write runs concurrently in multi-threaded steps.
+// The stream callbacks go to the delegate, it may keep counts of its own (OrganizationItemWriter)
+public class OrderedFutureItemWriter<T> implements ItemStreamWriter<Future<T>> {
+
+    private final ItemWriter<T> delegate;
+
+    private final PipelineStages stages;
+
+    private final AtomicLong pendingFilterCount = new AtomicLong();
+
+    public OrderedFutureItemWriter(ItemWriter<T> delegate, PipelineStages stages) {
+        this.delegate = delegate;
+        this.stages = stages;
+    }
+
+    @Override
+    public void write(Chunk<? extends Future<T>> chunk) throws Exception {
+
+        List<T> items = new ArrayList<>(chunk.size());
+        int filtered = 0;
+
+        long waitStart = System.nanoTime();
+        for (Iterator<? extends Future<T>> iterator = chunk.iterator(); iterator.hasNext(); ) {
+
+            T item = get(iterator.next());
+            if (item == null) {
+                iterator.remove();
+                filtered++;
+            } else {
+                items.add(item);
+            }
+        }
+        stages.writeWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+
+        if (filtered > 0) {
+            pendingFilterCount.addAndGet(filtered);
+        }
+
+        stages.writing.incrementAndGet();
+        try {
+            delegate.write(new Chunk<>(items));
+        } finally {
+            stages.writing.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.update(executionContext);
+        }
+
+        long pending = pendingFilterCount.getAndSet(0);
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (pending > 0 && stepContext != null) {
+
+            StepExecution stepExecution = stepContext.getStepExecution();
+            stepExecution.setFilterCount(stepExecution.getFilterCount() + pending);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.close();
+        }
+    }
+
+    // the processor exception itself, so the fault tolerance of the step sees the same exception as without the pipeline
+    private static <T> T get(Future<T> future) throws Exception {
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vedha.pipeline;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Occupancy of the read, process and write stages of a pipelined step, summed over its running executions (partitions).
+//  batch.pipeline.queue.size: items parsed ahead and waiting for a chunk
+//  batch.pipeline.stage.active: threads working in the stage right now
+//  batch.pipeline.stage.wait: time a stage waited for its neighbour, read = queue full (downstream is the bottleneck),
+//   chunk = queue empty (the reader is the bottleneck), write = writer waiting for the processor
+public class PipelineStages {
+
+    final AtomicInteger queued = new AtomicInteger();
+
+    final AtomicInteger reading = new AtomicInteger();
+
+    final AtomicInteger processing = new AtomicInteger();
+
+    final AtomicInteger writing = new AtomicInteger();
+
+    final Timer readWait;
+
+    final Timer chunkWait;
+
+    final Timer writeWait;
+
+    PipelineStages(MeterRegistry meterRegistry, Tags tags) {
+
+        Gauge.builder("batch.pipeline.queue.size", queued, AtomicInteger::get)
+                .description("Items read ahead and waiting for a chunk")
+                .tags(tags)
+                .register(meterRegistry);
+
+        gauge("read", reading, tags, meterRegistry);
+        gauge("process", processing, tags, meterRegistry);
+        gauge("write", writing, tags, meterRegistry);
+
+        readWait = timer("read", tags, meterRegistry);
+        chunkWait = timer("chunk", tags, meterRegistry);
+        writeWait = timer("write", tags, meterRegistry);
+    }
+
+    private static void gauge(String stage, AtomicInteger active, Tags tags, MeterRegistry meterRegistry) {
+
+        Gauge.builder("batch.pipeline.stage.active", active, AtomicInteger::get)
+                .description("Threads working in the stage")
+                .tags(tags.and("stage", stage))
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(String stage, Tags tags, MeterRegistry meterRegistry) {
+
+        return Timer.builder("batch.pipeline.stage.wait")
+                .description("Time the stage waited for the previous or next stage")
+                .tags(tags.and("stage", stage))
+                .register(meterRegistry);
+    }
+}
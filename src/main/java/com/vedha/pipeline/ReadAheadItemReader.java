@@ -0,0 +1,206 @@
+package com.vedha.pipeline;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reads and parses on its own thread into a bounded queue, so the next rows are parsed while the chunk is processed and committed.
+// The state of the delegate is ahead of the chunks, only the position of the last item handed to a chunk is saved,
+// on restart the delegate starts from the beginning and the items up to that position are skipped.
+// The position is the record count of a delegate that drops records (ReadPosition), the item count otherwise.
+// Multi-threaded steps do not save state, items handed out are still in flight on other threads when a chunk commits
+public class ReadAheadItemReader<T> implements ItemStreamReader<T> {
+
+    private static final String POSITION = "readAhead.position";
+
+    private static final Object END = new Object();
+
+    private final ItemReader<T> delegate;
+
+    private final int capacity;
+
+    private final PipelineStages stages;
+
+    private final boolean saveState;
+
+    private final AtomicLong position = new AtomicLong();
+
+    private BlockingQueue<Object> queue;
+
+    private Thread readerThread;
+
+    private volatile Throwable failure;
+
+    private volatile boolean ended;
+
+    public ReadAheadItemReader(ItemReader<T> delegate, int capacity, PipelineStages stages, boolean saveState) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.stages = stages;
+        this.saveState = saveState;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.open(new ExecutionContext());
+        }
+
+        long skip = saveState ? executionContext.getLong(POSITION, 0L) : 0L;
+        position.set(skip);
+        queue = new ArrayBlockingQueue<>(capacity);
+        ended = false;
+        failure = null;
+
+        // the delegate is usually a step scoped proxy, the reader thread needs the step context to resolve it
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+
+        readerThread = Thread.ofPlatform()
+                .name("read-ahead-" + (stepExecution != null ? stepExecution.getStepName() : "reader"))
+                .daemon()
+                .start(() -> readAhead(stepExecution, skip));
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+
+        // the position of the delegate is ahead of the chunks and is not saved, but it has to see update,
+        // FilteringItemStreamReader adds the rows it dropped to the filter count of the step there
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.update(new ExecutionContext());
+        }
+
+        if (saveState) {
+            executionContext.putLong(POSITION, position.get());
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+
+        if (readerThread != null) {
+            readerThread.interrupt();
+            try {
+                readerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readerThread = null;
+        }
+
+        if (queue != null) {
+            stages.queued.addAndGet(-(int) queue.stream().filter(item -> item != END).count());
+            queue = null;
+        }
+
+        if (delegate instanceof ItemStream itemStream) {
+            itemStream.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+
+        if (ended) {
+            return end();
+        }
+
+        Object item = queue.poll();
+        if (item == null) {
+            long waitStart = System.nanoTime();
+            item = queue.take();
+            stages.chunkWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+
+        if (item == END) {
+            ended = true;
+            queue.offer(END); // for the other threads of a multi-threaded step
+            return end();
+        }
+
+        stages.queued.decrementAndGet();
+        Positioned positioned = (Positioned) item;
+        position.set(positioned.position());
+
+        return (T) positioned.item();
+    }
+
+    private T end() throws Exception {
+
+        if (failure instanceof Exception exception) {
+            throw exception;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Read ahead failed", failure);
+        }
+
+        return null;
+    }
+
+    private void readAhead(StepExecution stepExecution, long skip) {
+
+        if (stepExecution != null) {
+            StepSynchronizationManager.register(stepExecution);
+        }
+
+        try {
+            long read = 0;
+            while (true) {
+
+                stages.reading.incrementAndGet();
+                T item;
+                try {
+                    item = delegate.read();
+                } finally {
+                    stages.reading.decrementAndGet();
+                }
+
+                if (item == null) {
+                    break;
+                }
+                long itemPosition = delegate instanceof ReadPosition readPosition ? readPosition.position() : ++read;
+                if (itemPosition <= skip) {
+                    continue; // handed to chunks that were committed before the restart
+                }
+
+                Positioned positioned = new Positioned(item, itemPosition);
+                if (!queue.offer(positioned)) {
+                    long waitStart = System.nanoTime();
+                    queue.put(positioned);
+                    stages.readWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                }
+                stages.queued.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            return; // closed
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            if (stepExecution != null) {
+                StepSynchronizationManager.close();
+            }
+        }
+
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private record Positioned(Object item, long position) {
+    }
+}
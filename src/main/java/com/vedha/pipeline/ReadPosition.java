@@ -0,0 +1,10 @@
+package com.vedha.pipeline;
+
+// Readers that drop records (FilteringItemStreamReader) report how many records they consumed, dropped ones included.
+// ReadAheadItemReader saves that position instead of the number of items, a restarted delta import drops other records
+// than the failed execution did (the rows it committed are unchanged now), the skip has to count records, not items
+public interface ReadPosition {
+
+    // records consumed by the reads since open
+    long position();
+}
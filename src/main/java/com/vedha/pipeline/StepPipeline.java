@@ -0,0 +1,65 @@
+package com.vedha.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Pipelined chunk steps (batch.pipeline), reading runs ahead on its own thread, processing fans out on virtual threads
+// and the chunk is written in read order once its items are processed
+@Component
+public class StepPipeline {
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final int queueCapacity;
+
+    private final ExecutorService processorExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, PipelineStages> stagesByStep = new ConcurrentHashMap<>();
+
+    public StepPipeline(MeterRegistry meterRegistry,
+                        @Value("${batch.pipeline.enabled:false}") boolean enabled,
+                        @Value("${batch.pipeline.queue-capacity:10000}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // saveState false for multi-threaded steps
+    public <T> ReadAheadItemReader<T> reader(String stepName, ItemReader<T> reader, boolean saveState) {
+        return new ReadAheadItemReader<>(reader, queueCapacity, stages(stepName), saveState);
+    }
+
+    public <I, O> FanOutItemProcessor<I, O> processor(String stepName, ItemProcessor<I, O> processor) {
+        return new FanOutItemProcessor<>(processor, processorExecutor, stages(stepName));
+    }
+
+    public <T> OrderedFutureItemWriter<T> writer(String stepName, ItemWriter<T> writer) {
+        return new OrderedFutureItemWriter<>(writer, stages(stepName));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        processorExecutor.shutdownNow();
+    }
+
+    private PipelineStages stages(String stepName) {
+        return stagesByStep.computeIfAbsent(stepName, key -> new PipelineStages(meterRegistry, Tags.of("step", stepName)));
+    }
+}
@@ -3,5 +3,9 @@ package com.vedha.repository;
 import com.vedha.entity.FileEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface FileRepository extends JpaRepository<FileEntity, Long> {
+
+    Optional<FileEntity> findFirstByContentHash(String contentHash);
 }
@@ -2,6 +2,7 @@ package com.vedha.repository;
 
 import com.vedha.entity.OrganizationEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface OrgRepository extends JpaRepository<OrganizationEntity, Long> {
+public interface OrgRepository extends JpaRepository<OrganizationEntity, Long>, JpaSpecificationExecutor<OrganizationEntity> {
 }
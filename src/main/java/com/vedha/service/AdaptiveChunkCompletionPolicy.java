@@ -0,0 +1,132 @@
+package com.vedha.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+// Chunk size that moves toward a target transaction time, starting from the configured chunk size.
+// After every commit the time per item of the chunk gives the ideal size, the size moves half way to it (at most x2 or /2 per chunk),
+// a rollback halves the size, and while threads are waiting for a database connection the size is not increased.
+// Register it as chunk listener of the same step, the size in use is published as the batch.chunk.size gauge
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends CompletionPolicySupport implements ChunkListener {
+
+    private final String stepName;
+
+    private final long targetNanos;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final IntSupplier threadsAwaitingConnection;
+
+    private final AtomicInteger size;
+
+    // chunks run on one thread from start to commit, also in the multithreaded steps
+    private final ThreadLocal<SizedContext> current = new ThreadLocal<>();
+
+    public AdaptiveChunkCompletionPolicy(String stepName, int initialSize, int minSize, int maxSize, Duration targetTransactionTime,
+                                         IntSupplier threadsAwaitingConnection, MeterRegistry meterRegistry) {
+
+        this.stepName = stepName;
+        this.targetNanos = targetTransactionTime.toNanos();
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.size = new AtomicInteger(Math.max(minSize, Math.min(maxSize, initialSize)));
+
+        Gauge.builder("batch.chunk.size", size, AtomicInteger::get)
+                .description("Chunk size chosen by the adaptive completion policy")
+                .tag("step", stepName)
+                .register(meterRegistry);
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+
+        SizedContext context = new SizedContext(parent, size.get());
+        current.set(context);
+
+        return context;
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return ((SizedContext) context).count >= ((SizedContext) context).size;
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        ((SizedContext) context).count++;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext chunkContext) {
+
+        SizedContext context = current.get();
+        current.remove();
+        if (context == null || context.count == 0) {
+            return;
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - context.startNanos);
+        int ideal = (int) Math.min(Integer.MAX_VALUE, targetNanos * context.count / elapsed);
+
+        // last chunk of the input is not full, it can only tell that the size is too big
+        if (context.count < context.size && ideal >= context.size) {
+            return;
+        }
+
+        int next = Math.max(context.size / 2, Math.min(context.size * 2, (context.size + ideal) / 2));
+        if (next > context.size && threadsAwaitingConnection.getAsInt() > 0) {
+            next = context.size; // pool is saturated, a bigger chunk would hold the connection longer
+        }
+
+        resize(next, "commit took " + Duration.ofNanos(elapsed).toMillis() + " ms for " + context.count + " items");
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext chunkContext) {
+
+        SizedContext context = current.get();
+        current.remove();
+
+        resize((context != null ? context.size : size.get()) / 2, "chunk rolled back");
+    }
+
+    private void resize(int next, String reason) {
+
+        next = Math.max(minSize, Math.min(maxSize, next));
+        if (size.getAndSet(next) != next) {
+            log.debug("Chunk size of {} changed to {}, {}", stepName, next, reason);
+        }
+    }
+
+    private static class SizedContext extends RepeatContextSupport {
+
+        private final int size;
+
+        private final long startNanos = System.nanoTime();
+
+        private int count;
+
+        SizedContext(RepeatContext parent, int size) {
+            super(parent);
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.vedha.service;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// Writes the chunk as a whole, when the database refuses a row (value too long, constraint violation) the chunk is rolled back
+// to a savepoint and written again in halves, until the refused rows are isolated and handed to the reject handler.
+// k bad rows cost about 2k log2(n) extra batches, the good rows are still written in bulk in the chunk transaction,
+// unlike the skip handling of spring batch which writes every item of a failed chunk in its own transaction.
+// Needs a jdbc writer on the transaction connection, a failed JPA flush leaves the persistence context unusable
+public class BisectingItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+
+    private final DataSource dataSource;
+
+    private final BiConsumer<T, Exception> rejectHandler;
+
+    public BisectingItemWriter(ItemWriter<T> delegate, DataSource dataSource, BiConsumer<T, Exception> rejectHandler) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+        this.rejectHandler = rejectHandler;
+    }
+
+    // the rejected items are removed from the chunk, so they are not counted as written
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+
+        List<T> accepted = writeAccepted(chunk.getItems());
+        if (accepted.size() == chunk.size()) {
+            return;
+        }
+
+        Set<T> written = Collections.newSetFromMap(new IdentityHashMap<>(accepted.size() * 2));
+        written.addAll(accepted);
+        for (Iterator<? extends T> iterator = chunk.iterator(); iterator.hasNext(); ) {
+            if (!written.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // the written items, without the rejected ones
+    public List<T> writeAccepted(List<? extends T> items) throws Exception {
+
+        List<T> accepted = new ArrayList<>(items.size());
+        if (!items.isEmpty()) {
+            write(DataSourceUtils.getConnection(dataSource), items, accepted);
+        }
+
+        return accepted;
+    }
+
+    private void write(Connection connection, List<? extends T> items, List<T> accepted) throws Exception {
+
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            delegate.write(new Chunk<>(items));
+            release(connection, savepoint);
+            accepted.addAll(items);
+            return;
+        } catch (DataIntegrityViolationException e) {
+
+            connection.rollback(savepoint);
+            if (items.size() == 1) {
+                rejectHandler.accept(items.get(0), e);
+                return;
+            }
+        }
+
+        int middle = items.size() / 2;
+        write(connection, items.subList(0, middle), accepted);
+        write(connection, items.subList(middle, items.size()), accepted);
+    }
+
+    private static void release(Connection connection, Savepoint savepoint) {
+
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException | UnsupportedOperationException e) {
+            // optional for the driver, released with the transaction anyway
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.vedha.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Hashes to recognize content that was already imported, sha-256 for whole files and a 64 bit hash for keys and csv rows
+public final class ContentFingerprint {
+
+    private ContentFingerprint() {
+    }
+
+    public static String sha256(InputStream inputStream) throws IOException {
+
+        try (inputStream) {
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static long hash64(CharSequence value) {
+        return hash64(value, 0, value.length());
+    }
+
+    // FNV-1a 64 over the chars, finished with the murmur3 mixer,
+    // the chance of two different values sharing a hash is about n^2 / 2^65, ~7e-5 for 50M values
+    public static long hash64(CharSequence value, int start, int end) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,40 @@
+package com.vedha.service;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Content of a plain, gzip or zip file, the compression is detected from the magic bytes when the stream is opened
+public class DecompressingResource extends AbstractResource {
+
+    private final Resource delegate;
+
+    public DecompressingResource(Resource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+
+        InputStream inputStream = new BufferedInputStream(delegate.getInputStream(), 64 * 1024);
+        try {
+            return FileCompression.detect(null, inputStream).decompress(inputStream);
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.vedha.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+// Value to id dictionary of a low cardinality column.
+// Lookups hash and compare the chars of the csv line in place, so a known value costs no allocation
+// and every row gets the same String instance. Reads are lock free on a copy on write table, new values are rare.
+// Writers take a ReentrantLock, not a monitor, the id assigner inserts into the database from virtual thread workers
+public class Dictionary {
+
+    public record Entry(int id, String value) {
+    }
+
+    private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+
+    private final ToIntFunction<String> idAssigner; // stores a new value and returns its id
+
+    private volatile Entry[] table = new Entry[64];
+
+    private int size;
+
+    private final Lock lock = new ReentrantLock();
+
+    public Dictionary(ToIntFunction<String> idAssigner) {
+        this.idAssigner = idAssigner;
+    }
+
+    public Entry lookup(String value) {
+        return lookup(value, 0, value.length());
+    }
+
+    public Entry lookup(CharSequence chars, int start, int end) {
+
+        Entry entry = find(table, chars, start, end);
+        return entry != null ? entry : add(chars.subSequence(start, end).toString());
+    }
+
+    // existing entry only, null for an unknown value
+    public Entry find(String value) {
+        return find(table, value, 0, value.length());
+    }
+
+    public String value(Integer id) {
+
+        Entry entry = id == null ? null : byId.get(id);
+        return entry == null ? null : entry.value();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // existing value from the database
+    public void load(int id, String value) {
+
+        lock.lock();
+        try {
+            put(new Entry(id, value));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry add(String value) {
+
+        lock.lock();
+        try {
+            Entry entry = find(table, value, 0, value.length());
+            if (entry == null) {
+                entry = new Entry(idAssigner.applyAsInt(value), value);
+                put(entry);
+            }
+
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+
+        Entry[] next = table.length <= (size + 1) * 2 ? new Entry[table.length * 2] : table.clone();
+        if (next.length != table.length) {
+            for (Entry existing : table) {
+                if (existing != null) {
+                    insert(next, existing);
+                }
+            }
+        }
+        insert(next, entry);
+
+        size++;
+        byId.put(entry.id(), entry);
+        table = next;
+    }
+
+    private static void insert(Entry[] table, Entry entry) {
+
+        int mask = table.length - 1;
+        int index = hash(entry.value(), 0, entry.value().length()) & mask;
+        while (table[index] != null && !table[index].value().equals(entry.value())) {
+            index = (index + 1) & mask;
+        }
+        table[index] = entry;
+    }
+
+    private static Entry find(Entry[] table, CharSequence chars, int start, int end) {
+
+        int mask = table.length - 1;
+        int index = hash(chars, start, end) & mask;
+
+        Entry entry;
+        while ((entry = table[index]) != null) {
+            if (matches(entry.value(), chars, start, end)) {
+                return entry;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    private static boolean matches(String value, CharSequence chars, int start, int end) {
+
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != chars.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int hash(CharSequence chars, int start, int end) {
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+}
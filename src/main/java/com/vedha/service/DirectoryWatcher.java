@@ -0,0 +1,243 @@
+package com.vedha.service;
+
+import com.vedha.event.DirectoryBatchEvent;
+import com.vedha.exception.JobSchedulerSaturatedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Watches the drop directory and collects the files that arrive during the coalescing window,
+// then moves them to processing/<batch> and publishes one DirectoryBatchEvent, one job imports the whole batch with a partition per file.
+// A file still growing at the end of the window waits for the next one. After its partition the file is moved to processed/<batch> or failed/<batch>.
+// Files left in processing/ by an instance that stopped during an import are moved back to the drop directory at startup and imported again
+@Slf4j
+@Component
+public class DirectoryWatcher {
+
+    private static final DateTimeFormatter BATCH_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final Duration coalescingWindow;
+
+    private final Map<Path, Long> pending = new LinkedHashMap<>(); // file -> size when last seen, only used by the watcher thread
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    public DirectoryWatcher(ApplicationEventPublisher applicationEventPublisher,
+                            @Value("${batch.directory-ingestion.enabled:false}") boolean enabled,
+                            @Value("${batch.directory-ingestion.directory:drop}") Path directory,
+                            @Value("${batch.directory-ingestion.coalescing-window:5s}") Duration coalescingWindow) {
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.enabled = enabled;
+        this.directory = directory.toAbsolutePath();
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        recover();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = Thread.ofPlatform().name("directory-watcher").daemon().start(this::watch);
+        log.info("Watching {} with a coalescing window of {}", directory, coalescingWindow);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+
+        if (watchService != null) {
+            watchService.close();
+            thread.interrupt();
+        }
+    }
+
+    // moves the file of a finished partition out of the processing directory
+    public void complete(Path file, boolean successful) {
+
+        Path batch = file.getParent();
+        Path target = directory.resolve(successful ? "processed" : "failed").resolve(batch.getFileName()).resolve(file.getFileName());
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(batch); // last file of the batch
+        } catch (DirectoryNotEmptyException e) {
+            // other files of the batch are still running
+        } catch (IOException e) {
+            log.warn("Unable to move {} to {}", file, target, e);
+        }
+    }
+
+    // processing/<batch>/<file> of the jobs that were running when the application stopped, their partitions never completed.
+    // A file whose name is in the drop directory again is moved to failed/<batch> instead, it would overwrite the newer one
+    private void recover() throws IOException {
+
+        Path processing = directory.resolve("processing");
+        if (!Files.isDirectory(processing)) {
+            return;
+        }
+
+        try (Stream<Path> batches = Files.list(processing)) {
+            for (Path batch : batches.filter(Files::isDirectory).toList()) {
+
+                try (Stream<Path> files = Files.list(batch)) {
+                    for (Path file : files.toList()) {
+
+                        Path target = directory.resolve(file.getFileName());
+                        if (Files.exists(target)) {
+                            target = directory.resolve("failed").resolve(batch.getFileName()).resolve(file.getFileName());
+                            Files.createDirectories(target.getParent());
+                        }
+                        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                        log.warn("{} of the unfinished {} moved to {}", file.getFileName(), batch.getFileName(), target);
+                    }
+                }
+                Files.deleteIfExists(batch);
+            }
+        }
+    }
+
+    private void watch() {
+
+        scan(); // files dropped while the application was down
+
+        long windowStart = pending.isEmpty() ? 0 : System.nanoTime();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+
+                long remaining = pending.isEmpty() ? TimeUnit.SECONDS.toNanos(1) : coalescingWindow.toNanos() - (System.nanoTime() - windowStart);
+                WatchKey key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan();
+                        } else if (event.context() instanceof Path name) {
+                            if (pending.isEmpty()) {
+                                windowStart = System.nanoTime();
+                            }
+                            add(directory.resolve(name));
+                        }
+                    }
+                    key.reset();
+                }
+
+                if (!pending.isEmpty() && System.nanoTime() - windowStart >= coalescingWindow.toNanos()) {
+                    flush();
+                    windowStart = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Directory watcher stopped", e);
+        }
+    }
+
+    private void scan() {
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::add);
+        } catch (IOException e) {
+            log.warn("Unable to list {}", directory, e);
+        }
+    }
+
+    private void add(Path file) {
+
+        String name = file.getFileName().toString();
+        if (!Files.isRegularFile(file) || name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part")) {
+            return; // subdirectories and files still being copied under a temporary name
+        }
+
+        pending.putIfAbsent(file, size(file));
+    }
+
+    private void flush() {
+
+        // files whose size did not change since they were last seen
+        List<Path> ready = new ArrayList<>();
+        pending.replaceAll((file, size) -> {
+            long currentSize = size(file);
+            if (currentSize >= 0 && currentSize == size) {
+                ready.add(file);
+            }
+            return currentSize;
+        });
+        pending.keySet().removeIf(file -> ready.contains(file) || !Files.exists(file));
+
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        Path batch = directory.resolve("processing").resolve("batch-" + LocalDateTime.now().format(BATCH_NAME));
+        List<Path> moved = new ArrayList<>();
+        try {
+            Files.createDirectories(batch);
+            for (Path file : ready) {
+                moved.add(Files.move(file, batch.resolve(file.getFileName())));
+            }
+
+            applicationEventPublisher.publishEvent(DirectoryBatchEvent.builder().directory(batch.toString()).files(moved.size()).build());
+            log.info("{} files queued as {}", moved.size(), batch.getFileName());
+        } catch (JobSchedulerSaturatedException | IOException e) {
+
+            // back to the drop directory, they are picked up again by a later window
+            log.warn("Unable to queue {} files, retrying later: {}", ready.size(), e.getMessage());
+            for (Path file : moved) {
+                try {
+                    add(Files.move(file, directory.resolve(file.getFileName())));
+                } catch (IOException moveException) {
+                    log.error("Unable to move {} back to {}", file, directory, moveException);
+                }
+            }
+        }
+    }
+
+    private static long size(Path file) {
+
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
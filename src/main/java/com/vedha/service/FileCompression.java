@@ -0,0 +1,58 @@
+package com.vedha.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Compression of an uploaded or stored file, the magic bytes decide, the content type only when they are not recognized
+public enum FileCompression {
+
+    NONE, GZIP, ZIP;
+
+    private static final Set<String> GZIP_CONTENT_TYPES = Set.of("application/gzip", "application/x-gzip");
+
+    private static final Set<String> ZIP_CONTENT_TYPES = Set.of("application/zip", "application/x-zip-compressed");
+
+    // inputStream has to support mark, it is reset to the start
+    public static FileCompression detect(String contentType, InputStream inputStream) throws IOException {
+
+        inputStream.mark(4);
+        byte[] magic = inputStream.readNBytes(4);
+        inputStream.reset();
+
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return GZIP;
+        }
+        if (magic.length == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            return ZIP;
+        }
+
+        String type = contentType != null ? contentType.toLowerCase() : "";
+        return GZIP_CONTENT_TYPES.contains(type) ? GZIP : ZIP_CONTENT_TYPES.contains(type) ? ZIP : NONE;
+    }
+
+    // csv content of the file as a stream, a zip file has to contain the csv as its first file entry
+    public InputStream decompress(InputStream inputStream) throws IOException {
+
+        return switch (this) {
+            case NONE -> inputStream;
+            case GZIP -> new GZIPInputStream(inputStream, 64 * 1024);
+            case ZIP -> {
+                ZipInputStream zipInputStream = new ZipInputStream(inputStream);
+                ZipEntry entry;
+                do {
+                    entry = zipInputStream.getNextEntry();
+                } while (entry != null && entry.isDirectory());
+
+                if (entry == null) {
+                    zipInputStream.close();
+                    throw new IOException("Zip file has no file entry");
+                }
+                yield zipInputStream;
+            }
+        };
+    }
+}
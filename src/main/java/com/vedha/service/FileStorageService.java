@@ -0,0 +1,246 @@
+package com.vedha.service;
+
+import com.vedha.entity.FileEntity;
+import com.vedha.repository.FileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+// Streams uploaded files in and out of the files BLOB column, the file content is never loaded into the heap.
+// Files are stored gzip compressed, gzip uploads as they are, zip and plain csv uploads are compressed on the way in.
+// Readers get the decompressed csv as a stream, only the compressed bytes are read from the database
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileStorageService {
+
+    public record Upload(FileCompression compression, String contentHash, long size) {
+    }
+
+    private static final String UPDATE_DATA_SQL = "UPDATE files SET file_data = ? WHERE id = ?";
+
+    private static final String SELECT_DATA_SQL = "SELECT file_data FROM files WHERE id = ?";
+
+    private final FileRepository fileRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DataSource dataSource;
+
+    // reads the spooled multipart file once more, cheaper than storing a file that was already imported.
+    // hash and size are of the csv content, so a compressed upload of a known file is recognized too
+    public Upload inspect(MultipartFile multipartFile) throws IOException {
+
+        try (InputStream inputStream = new BufferedInputStream(multipartFile.getInputStream(), 64 * 1024)) {
+
+            FileCompression compression = FileCompression.detect(multipartFile.getContentType(), inputStream);
+            try {
+                CountingInputStream content = new CountingInputStream(compression.decompress(inputStream));
+                String contentHash = ContentFingerprint.sha256(content);
+
+                return new Upload(compression, contentHash, content.count);
+            } catch (ZipException | EOFException e) {
+                throw new IllegalArgumentException("Upload is not a valid " + compression + " file: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public Optional<FileEntity> findByContentHash(String contentHash) {
+        return fileRepository.findFirstByContentHash(contentHash);
+    }
+
+    @Transactional
+    public FileEntity store(MultipartFile multipartFile, Upload upload) throws IOException {
+
+        Path spool = null;
+        try {
+
+            // gzip is stored as uploaded, anything else is compressed to a temp file first, the BLOB needs the length up front
+            long compressedSize = multipartFile.getSize();
+            if (upload.compression() != FileCompression.GZIP) {
+
+                spool = Files.createTempFile("upload-", ".csv.gz");
+                try (InputStream inputStream = upload.compression().decompress(multipartFile.getInputStream());
+                     OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(spool), 64 * 1024)) {
+                    inputStream.transferTo(outputStream);
+                }
+                compressedSize = Files.size(spool);
+            }
+
+            FileEntity fileEntity = fileRepository.save(FileEntity.builder()
+                    .fileName(multipartFile.getOriginalFilename())
+                    .fileType(multipartFile.getContentType())
+                    .fileSize(upload.size())
+                    .contentHash(upload.contentHash())
+                    .compression(FileCompression.GZIP)
+                    .compressedSize(compressedSize)
+                    .build());
+
+            // copied to the BLOB as a stream, from the multipart file already spooled to disk by the servlet container or from the temp file
+            long length = compressedSize;
+            try (InputStream inputStream = spool != null ? Files.newInputStream(spool) : multipartFile.getInputStream()) {
+
+                jdbcTemplate.update(UPDATE_DATA_SQL, ps -> {
+                    ps.setBinaryStream(1, inputStream, length);
+                    ps.setLong(2, fileEntity.getId());
+                });
+            }
+
+            log.info("Stored file {} with id {}, {} upload, size {}, stored {}", fileEntity.getFileName(), fileEntity.getId(),
+                    upload.compression(), fileEntity.getFileSize(), fileEntity.getCompressedSize());
+
+            return fileEntity;
+        } finally {
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+        }
+    }
+
+    public Resource resource(Long fileId) {
+
+        FileEntity fileEntity = fileRepository.findById(fileId).orElseThrow();
+
+        return new AbstractResource() {
+
+            @Override
+            public String getDescription() {
+                return "file [" + fileEntity.getId() + ", " + fileEntity.getFileName() + "]";
+            }
+
+            // csv size, the stored data may be smaller
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public long contentLength() {
+                return fileEntity.getFileSize();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+
+                InputStream inputStream = openStream(fileEntity.getId());
+                try {
+                    return fileEntity.getCompression() != null ? fileEntity.getCompression().decompress(inputStream) : inputStream;
+                } catch (IOException | RuntimeException e) {
+                    inputStream.close(); // releases the connection
+                    throw e;
+                }
+            }
+        };
+    }
+
+    // the returned stream holds its own connection until it is closed
+    public InputStream openStream(Long fileId) throws IOException {
+
+        Connection connection = null;
+        try {
+
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false); // LOB is only guaranteed to be readable inside a transaction
+            connection.setReadOnly(true);
+
+            PreparedStatement ps = connection.prepareStatement(SELECT_DATA_SQL);
+            ps.setLong(1, fileId);
+            ResultSet rs = ps.executeQuery();
+
+            if (!rs.next()) {
+                throw new FileNotFoundException("File not found with id: " + fileId);
+            }
+
+            Connection streamConnection = connection;
+            return new FilterInputStream(rs.getBinaryStream(1)) {
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        JdbcUtils.closeResultSet(rs);
+                        JdbcUtils.closeStatement(ps);
+                        release(streamConnection);
+                    }
+                }
+            };
+        } catch (SQLException | IOException | RuntimeException e) {
+
+            release(connection);
+            throw e instanceof IOException ioException ? ioException : new IOException("Unable to read file with id: " + fileId, e);
+        }
+    }
+
+    private static void release(Connection connection) {
+
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            connection.rollback();
+            connection.setReadOnly(false);
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.warn("Unable to reset connection", e);
+        }
+        JdbcUtils.closeConnection(connection);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.vedha.service;
+
+import com.vedha.pipeline.ReadPosition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Skips the items the delegate marks as filtered, so they never reach the processor.
+// The skipped items are added to the filter count of the step execution once per chunk (update is called before every commit),
+// instead of logging every item.
+// The position counts the skipped items too, a read ahead restart skips records, not items (see ReadPosition)
+@Slf4j
+public class FilteringItemStreamReader<T> implements ItemStreamReader<T>, ReadPosition {
+
+    private final ItemStreamReader<T> delegate;
+
+    private final T filtered;
+
+    private final AtomicLong pendingFilterCount = new AtomicLong();
+
+    private final AtomicLong position = new AtomicLong();
+
+    private long filterCount;
+
+    public FilteringItemStreamReader(ItemStreamReader<T> delegate, T filtered) {
+        this.delegate = delegate;
+        this.filtered = filtered;
+    }
+
+    @Override
+    public T read() throws Exception {
+
+        T item;
+        while ((item = delegate.read()) == filtered) {
+            pendingFilterCount.incrementAndGet();
+            position.incrementAndGet();
+        }
+        if (item != null) {
+            position.incrementAndGet();
+        }
+
+        return item;
+    }
+
+    @Override
+    public long position() {
+        return position.get();
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+
+        delegate.update(executionContext);
+
+        // called with the step lock held, safe to update the step execution also in the multithreaded steps
+        long pending = pendingFilterCount.getAndSet(0);
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (pending > 0 && stepContext != null) {
+
+            StepExecution stepExecution = stepContext.getStepExecution();
+            stepExecution.setFilterCount(stepExecution.getFilterCount() + pending);
+            filterCount += pending;
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+
+        if (filterCount > 0) {
+            log.info("{} items filtered by the reader", filterCount);
+        }
+        delegate.close();
+    }
+}
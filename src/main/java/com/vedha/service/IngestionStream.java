@@ -0,0 +1,132 @@
+package com.vedha.service;
+
+import com.vedha.exception.IngestionStreamStalledException;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.batch.core.JobExecution;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Lines of one streaming request on their way from the request thread to streamImporterStep.
+// The queue is bounded, when the step falls behind put blocks the request thread, the request body is no longer read
+// and tcp flow control slows the client down. The step takes lines as they arrive, nothing is stored in between.
+// The job of a stream holds one of the batch.scheduler.max-concurrent-jobs slots for as long as the request is sent,
+// while it waits in the JobScheduler queue the client is held back once the queue is full, without the stall timeout
+public class IngestionStream {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String contentType) {
+            return contentType != null && contentType.toLowerCase().contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    // end of the request body, compared by identity
+    private static final String END = new String("END");
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final Format format;
+
+    @Getter
+    private final String source;
+
+    private final BlockingQueue<String> lines;
+
+    private final Timer flowControlWait;
+
+    private final CompletableFuture<JobExecution> completion = new CompletableFuture<>();
+
+    private volatile Exception aborted;
+
+    // set by the first poll of the step, until then the job is still waiting for a job slot
+    private volatile boolean started;
+
+    IngestionStream(String id, Format format, String source, int capacity, Timer flowControlWait) {
+        this.id = id;
+        this.format = format;
+        this.source = source;
+        this.lines = new ArrayBlockingQueue<>(capacity);
+        this.flowControlWait = flowControlWait;
+    }
+
+    // false when the job has already ended and takes no more lines,
+    // a step that has started and did not take a line for stallTimeout aborts the stream
+    public boolean put(String line, Duration stallTimeout) throws InterruptedException {
+
+        if (completion.isDone()) {
+            return false;
+        }
+        if (lines.offer(line)) {
+            return true;
+        }
+
+        // queue full, the client is held back until the step catches up
+        long start = System.nanoTime();
+        long stallStart = start;
+        try {
+            while (!lines.offer(line, 100, TimeUnit.MILLISECONDS)) {
+
+                if (completion.isDone()) {
+                    return false;
+                }
+                if (!started) {
+                    stallStart = System.nanoTime(); // the job is queued, no step takes lines yet
+                    continue;
+                }
+                if (System.nanoTime() - stallStart > stallTimeout.toNanos()) {
+
+                    IngestionStreamStalledException stalled = new IngestionStreamStalledException("Stream " + id + " stalled, the import did not take a line for " + stallTimeout);
+                    abort(stalled);
+                    throw stalled;
+                }
+            }
+            return true;
+        } finally {
+            flowControlWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean end(Duration stallTimeout) throws InterruptedException {
+        return put(END, stallTimeout);
+    }
+
+    // the lines already queued are still imported, then the step fails with the cause
+    public void abort(Exception cause) {
+        aborted = cause;
+    }
+
+    // next line, END or null when none arrived within the timeout
+    public String poll(Duration timeout) throws InterruptedException {
+
+        started = true;
+        return lines.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // once the lines received before the abort have been taken
+    public void checkNotAborted() {
+
+        if (aborted != null && lines.isEmpty()) {
+            throw new IllegalStateException("Stream " + id + " was aborted: " + aborted.getMessage(), aborted);
+        }
+    }
+
+    public static boolean isEnd(String line) {
+        return line == END;
+    }
+
+    public int buffered() {
+        return lines.size();
+    }
+
+    public CompletableFuture<JobExecution> completion() {
+        return completion;
+    }
+}
@@ -0,0 +1,135 @@
+package com.vedha.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Open streaming requests (POST /api/batch/stream), each is imported by its own streamImporterJob while the request is still being sent.
+//  batch.streaming.buffered: lines received and not yet taken by a step
+//  batch.streaming.flow-control.wait: time request threads were held back because a step fell behind
+@Slf4j
+@Service
+public class IngestionStreams {
+
+    private final Map<String, IngestionStream> streams = new ConcurrentHashMap<>();
+
+    private final int queueCapacity;
+
+    private final Duration stallTimeout;
+
+    private final Timer flowControlWait;
+
+    public record Result(long lines, JobExecution jobExecution) {
+    }
+
+    public IngestionStreams(@Value("${batch.streaming.queue-capacity:10000}") int queueCapacity,
+                            @Value("${batch.streaming.stall-timeout:60s}") Duration stallTimeout,
+                            MeterRegistry meterRegistry) {
+
+        this.queueCapacity = queueCapacity;
+        this.stallTimeout = stallTimeout;
+
+        Gauge.builder("batch.streaming.active", streams, Map::size)
+                .description("Streaming requests being imported")
+                .register(meterRegistry);
+        Gauge.builder("batch.streaming.buffered", streams, s -> s.values().stream().mapToInt(IngestionStream::buffered).sum())
+                .description("Lines received and waiting for the import step")
+                .register(meterRegistry);
+        this.flowControlWait = Timer.builder("batch.streaming.flow-control.wait")
+                .description("Time a streaming request was held back because the import step fell behind")
+                .register(meterRegistry);
+    }
+
+    public IngestionStream open(String source, IngestionStream.Format format) {
+
+        IngestionStream stream = new IngestionStream(UUID.randomUUID().toString(), format, source, queueCapacity, flowControlWait);
+        streams.put(stream.getId(), stream);
+
+        return stream;
+    }
+
+    public IngestionStream stream(String id) {
+
+        IngestionStream stream = streams.get(id);
+        if (stream == null) {
+            throw new IllegalStateException("Stream " + id + " is not open, a streaming import can not be restarted");
+        }
+
+        return stream;
+    }
+
+    // called once the job of the stream has ended, or could not be launched (jobExecution null)
+    public void close(String id, JobExecution jobExecution, Exception error) {
+
+        IngestionStream stream = streams.remove(id);
+        if (stream == null) {
+            return;
+        }
+
+        if (error != null) {
+            stream.completion().completeExceptionally(error);
+        } else {
+            stream.completion().complete(jobExecution);
+        }
+    }
+
+    // Reads the request body line by line into the stream, on the request thread, until the body ends or the job has ended.
+    // The csv header is skipped, blank lines are ignored. Returns the job execution when the job finished within the stall timeout
+    // after the last line, null when it is still queued or running
+    public Result ingest(IngestionStream stream, InputStream body, boolean header) throws InterruptedException {
+
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024)) {
+
+            boolean skip = header && stream.getFormat() == IngestionStream.Format.CSV;
+            String line;
+            while ((line = reader.readLine()) != null) {
+
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (skip) {
+                    skip = false;
+                    continue;
+                }
+                if (!stream.put(line, stallTimeout)) {
+                    break; // job has ended, the rest of the body is not read
+                }
+                lines++;
+            }
+
+            stream.end(stallTimeout);
+        } catch (IOException e) {
+
+            // client went away, the lines received so far are still imported
+            log.warn("Stream {} from {} aborted after {} lines", stream.getId(), stream.getSource(), lines, e);
+            stream.abort(e);
+            throw new IllegalStateException("Stream " + stream.getId() + " aborted after " + lines + " lines", e);
+        }
+
+        try {
+            return new Result(lines, stream.completion().get(stallTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return new Result(lines, null);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stream " + stream.getId() + " could not be imported", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.vedha.service;
+
+import java.util.Arrays;
+
+// Count and sum per int key on primitive arrays (open addressing), adding a row does not box or allocate.
+// Not thread safe, every writer thread folds into its own instance, instances are merged afterwards
+public class IntKeyAggregates {
+
+    public interface Consumer {
+        void accept(int key, long count, long sum);
+    }
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+
+    private long[] counts;
+
+    private long[] sums;
+
+    private int size;
+
+    public IntKeyAggregates() {
+        this(64);
+    }
+
+    public IntKeyAggregates(int capacity) {
+
+        int length = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        keys = new int[length];
+        counts = new long[length];
+        sums = new long[length];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void add(int key, long value) {
+        add(key, 1, value);
+    }
+
+    public void add(int key, long count, long sum) {
+
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+
+        if (size * 2 >= keys.length) {
+            resize();
+        }
+
+        int index = index(keys, key);
+        if (keys[index] == EMPTY) {
+            keys[index] = key;
+            size++;
+        }
+        counts[index] += count;
+        sums[index] += sum;
+    }
+
+    public void merge(IntKeyAggregates other) {
+        other.forEach(this::add);
+    }
+
+    public void forEach(Consumer consumer) {
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], counts[i], sums[i]);
+            }
+        }
+    }
+
+    public long count(int key) {
+
+        int index = index(keys, key);
+        return keys[index] == EMPTY ? 0 : counts[index];
+    }
+
+    public long sum(int key) {
+
+        int index = index(keys, key);
+        return keys[index] == EMPTY ? 0 : sums[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // slot of the key, or the empty slot where it would go
+    private static int index(int[] keys, int key) {
+
+        int mask = keys.length - 1;
+        int index = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void resize() {
+
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldSums = sums;
+
+        keys = new int[oldKeys.length * 2];
+        counts = new long[keys.length];
+        sums = new long[keys.length];
+        Arrays.fill(keys, EMPTY);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = index(keys, oldKeys[i]);
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+                sums[index] = oldSums[i];
+            }
+        }
+    }
+}
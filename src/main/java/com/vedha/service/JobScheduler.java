@@ -0,0 +1,103 @@
+package com.vedha.service;
+
+import com.vedha.exception.JobSchedulerSaturatedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single admission point for all job launches, runs at most max-concurrent-jobs jobs at a time,
+// the others wait in a bounded priority queue, when the queue is full the launch is rejected with JobSchedulerSaturatedException
+@Slf4j
+@Service
+public class JobScheduler {
+
+    public enum JobPriority {
+        HIGH, NORMAL, LOW
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    private final int queueCapacity;
+
+    private final Duration retryAfter;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public JobScheduler(@Value("${batch.scheduler.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                        @Value("${batch.scheduler.queue-capacity:20}") int queueCapacity,
+                        @Value("${batch.scheduler.retry-after:30s}") Duration retryAfter,
+                        MeterRegistry meterRegistry) {
+
+        this.queueCapacity = queueCapacity;
+        this.retryAfter = retryAfter;
+        this.executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(queueCapacity), // only ScheduledJob is queued, ordered by its compareTo
+                new CustomizableThreadFactory("job-"));
+
+        Gauge.builder("batch.scheduler.queued", executor, e -> e.getQueue().size())
+                .description("Jobs waiting for a free job slot")
+                .register(meterRegistry);
+        Gauge.builder("batch.scheduler.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Jobs running")
+                .register(meterRegistry);
+    }
+
+    // fails fast before any work is done for a request, submit checks again
+    public void ensureCapacity() {
+
+        if (executor.getQueue().size() >= queueCapacity) {
+            throw new JobSchedulerSaturatedException("Job queue is full, " + queueCapacity + " jobs are waiting", retryAfter);
+        }
+    }
+
+    public synchronized void submit(String jobName, JobPriority priority, Callable<JobExecution> launch) {
+
+        ensureCapacity();
+
+        executor.execute(new ScheduledJob(jobName, priority, sequence.incrementAndGet(), launch));
+        log.info("Job {} queued with priority {}, {} jobs waiting", jobName, priority, executor.getQueue().size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record ScheduledJob(String jobName, JobPriority priority, long sequence, Callable<JobExecution> launch)
+            implements Runnable, Comparable<ScheduledJob> {
+
+        @Override
+        public void run() {
+
+            try {
+                JobExecution jobExecution = launch.call();
+                log.info("Job {} finished with status {}", jobName, jobExecution.getStatus());
+            } catch (JobInstanceAlreadyCompleteException e) {
+                log.info("Job {} skipped, already completed with the same parameters", jobName);
+            } catch (Exception e) {
+                log.error("Job {} could not be launched", jobName, e);
+            }
+        }
+
+        // higher priority first, then in the order of submission
+        @Override
+        public int compareTo(ScheduledJob other) {
+
+            int compare = priority.compareTo(other.priority);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.vedha.service;
+
+// Open addressing set of primitive longs, ~16 bytes per value instead of a boxed Long in a HashSet.
+// Not thread safe, callers synchronize on it or only read it after it is filled
+public class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+
+    private int size;
+
+    private boolean containsEmpty; // 0 is the empty marker, tracked separately
+
+    public LongHashSet(int capacity) {
+        table = new long[Integer.highestOneBit(Math.max(16, capacity) - 1) << 1];
+    }
+
+    // true when the value was not in the set yet
+    public boolean add(long value) {
+
+        if (value == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            return added;
+        }
+
+        if (size * 2 >= table.length) {
+            resize();
+        }
+
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        size++;
+
+        return true;
+    }
+
+    public boolean contains(long value) {
+
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    // true when the value was in the set, the following entries of its probe sequence are moved back into the gap
+    public boolean remove(long value) {
+
+        if (value == EMPTY) {
+            boolean removed = containsEmpty;
+            containsEmpty = false;
+            return removed;
+        }
+
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != value) {
+            if (table[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        int gap = index;
+        for (int next = (gap + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            // an entry can fill the gap when its home slot is not between the gap and itself
+            if (((next - slot(table[next], mask)) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = EMPTY;
+        size--;
+
+        return true;
+    }
+
+    public int size() {
+        return size + (containsEmpty ? 1 : 0);
+    }
+
+    private void resize() {
+
+        long[] old = table;
+        table = new long[old.length << 1];
+        size = 0;
+
+        for (long value : old) {
+            if (value != EMPTY) {
+                add(value);
+            }
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        return (int) (value ^ (value >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,60 @@
+package com.vedha.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vedha.entity.OrganizationEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+
+import java.io.StringWriter;
+
+// Maps one json object per line, {"organizationId": .., "name": .., "website": .., "country": .., "description": ..,
+// "founded": .., "industry": .., "employees": ..}, by writing it as the csv line of a file import and mapping that,
+// so filter, delta row hash and dictionaries behave the same for both formats
+@RequiredArgsConstructor
+public class NdjsonLineMapper implements LineMapper<OrganizationEntity> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final LineMapper<OrganizationEntity> csvLineMapper;
+
+    @Override
+    public OrganizationEntity mapLine(String line, int lineNumber) throws Exception {
+
+        JsonNode record;
+        try {
+            record = OBJECT_MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new FlatFileParseException("Invalid json in line " + lineNumber, e, line, lineNumber);
+        }
+        if (record == null || !record.isObject()) {
+            throw new FlatFileParseException("Line " + lineNumber + " is not a json object", line, lineNumber);
+        }
+
+        OrganizationEntity organization = new OrganizationEntity();
+        organization.setId(0L); // index column, skipped by the csv mapper
+        organization.setOrganizationId(text(record, "organizationId"));
+        organization.setName(text(record, "name"));
+        organization.setWebsite(text(record, "website"));
+        organization.setCountry(text(record, "country"));
+        organization.setDescription(text(record, "description"));
+        organization.setFounded(text(record, "founded"));
+        organization.setIndustry(text(record, "industry"));
+        String employees = text(record, "employees");
+        organization.setEmployees(employees != null ? Long.parseLong(employees.trim()) : null);
+
+        StringWriter csvLine = new StringWriter(line.length());
+        OrganizationExportService.writeLine(csvLine, organization);
+        csvLine.getBuffer().setLength(csvLine.getBuffer().length() - 1); // '\n'
+
+        return csvLineMapper.mapLine(csvLine.toString(), lineNumber);
+    }
+
+    private static String text(JsonNode record, String field) {
+
+        JsonNode value = record.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,63 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+
+// Organization count and headcount by country, industry and founding decade of one source,
+// countries and industries are keyed by their dimension id, decades by their first year
+public class OrganizationAggregates {
+
+    public static final int UNKNOWN = -1;
+
+    private final IntKeyAggregates countries = new IntKeyAggregates(256);
+
+    private final IntKeyAggregates industries = new IntKeyAggregates(256);
+
+    private final IntKeyAggregates foundedDecades = new IntKeyAggregates(64);
+
+    public void add(OrganizationEntity organization) {
+
+        long employees = organization.getEmployees() != null ? organization.getEmployees() : 0;
+
+        countries.add(organization.getCountryId() != null ? organization.getCountryId() : UNKNOWN, employees);
+        industries.add(organization.getIndustryId() != null ? organization.getIndustryId() : UNKNOWN, employees);
+        foundedDecades.add(decade(organization.getFounded()), employees);
+    }
+
+    public void merge(OrganizationAggregates other) {
+
+        countries.merge(other.countries);
+        industries.merge(other.industries);
+        foundedDecades.merge(other.foundedDecades);
+    }
+
+    public IntKeyAggregates countries() {
+        return countries;
+    }
+
+    public IntKeyAggregates industries() {
+        return industries;
+    }
+
+    public IntKeyAggregates foundedDecades() {
+        return foundedDecades;
+    }
+
+    // 1988 -> 1980, without parsing a number object
+    static int decade(String founded) {
+
+        if (founded == null || founded.isEmpty() || founded.length() > 9) {
+            return UNKNOWN;
+        }
+
+        int year = 0;
+        for (int i = 0; i < founded.length(); i++) {
+            char c = founded.charAt(i);
+            if (c < '0' || c > '9') {
+                return UNKNOWN;
+            }
+            year = year * 10 + (c - '0');
+        }
+
+        return year - year % 10;
+    }
+}
@@ -0,0 +1,353 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Columnar binary copy of an organizations csv, memory mapped when read, see OrganizationStaging.
+//  header: magic, version, rows, content hash of the csv, length of every section
+//  sections: employees long[rows], rowHash long[rows],
+//   organizationId, name, website, description: offsets int[rows + 1] and their utf-8 bytes,
+//   country, founded, industry: codes int[rows] into the dictionaries, the last section holds the three dictionaries
+// Every section is mapped on its own and limited to 2GB
+public final class OrganizationColumnFile {
+
+    private static final int MAGIC = 0x4F524743; // ORGC
+
+    private static final int VERSION = 1;
+
+    private static final int TEXT_COLUMNS = 4; // organizationId, name, website, description
+
+    private static final int DICTIONARY_COLUMNS = 3; // country, founded, industry
+
+    private static final int SECTIONS = 2 + 2 * TEXT_COLUMNS + DICTIONARY_COLUMNS + 1;
+
+    private final int rows;
+
+    private final ByteBuffer employees;
+
+    private final ByteBuffer rowHashes;
+
+    private final ByteBuffer[] offsets = new ByteBuffer[TEXT_COLUMNS];
+
+    private final ByteBuffer[] texts = new ByteBuffer[TEXT_COLUMNS];
+
+    private final ByteBuffer[] codes = new ByteBuffer[DICTIONARY_COLUMNS];
+
+    private final List<List<String>> dictionaries = new ArrayList<>();
+
+    private OrganizationColumnFile(int rows, ByteBuffer[] sections) throws IOException {
+
+        this.rows = rows;
+        this.employees = sections[0];
+        this.rowHashes = sections[1];
+
+        for (int column = 0; column < TEXT_COLUMNS; column++) {
+            offsets[column] = sections[2 + 2 * column];
+            texts[column] = sections[3 + 2 * column];
+        }
+        for (int column = 0; column < DICTIONARY_COLUMNS; column++) {
+            codes[column] = sections[2 + 2 * TEXT_COLUMNS + column];
+        }
+
+        ByteBuffer dictionarySection = sections[SECTIONS - 1];
+        for (int column = 0; column < DICTIONARY_COLUMNS; column++) {
+
+            int size = dictionarySection.getInt();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte[] value = new byte[dictionarySection.getInt()];
+                dictionarySection.get(value);
+                values.add(new String(value, StandardCharsets.UTF_8));
+            }
+            dictionaries.add(List.copyOf(values));
+        }
+    }
+
+    public static OrganizationColumnFile open(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            Header header = Header.read(Channels.newInputStream(channel.position(0)));
+
+            ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+            long position = header.length();
+            for (int i = 0; i < SECTIONS; i++) {
+                // the mapping stays valid after the channel is closed
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, header.sectionLengths()[i]);
+                position += header.sectionLengths()[i];
+            }
+
+            return new OrganizationColumnFile(header.rows(), sections);
+        }
+    }
+
+    // false for a file of another csv content or of another version of the format
+    public static boolean matches(Path file, String contentHash) {
+
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return contentHash.equals(Header.read(inputStream).contentHash());
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    public static Writer writer(Path file, String contentHash) throws IOException {
+        return new Writer(file, contentHash);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    // the filter column, read without touching any text
+    public long employees(int row) {
+        return employees.getLong(row * 8);
+    }
+
+    public long rowHash(int row) {
+        return rowHashes.getLong(row * 8);
+    }
+
+    public String organizationId(int row) {
+        return text(0, row);
+    }
+
+    public String name(int row) {
+        return text(1, row);
+    }
+
+    public String website(int row) {
+        return text(2, row);
+    }
+
+    public String description(int row) {
+        return text(3, row);
+    }
+
+    public int countryCode(int row) {
+        return codes[0].getInt(row * 4);
+    }
+
+    public int foundedCode(int row) {
+        return codes[1].getInt(row * 4);
+    }
+
+    public int industryCode(int row) {
+        return codes[2].getInt(row * 4);
+    }
+
+    public List<String> countries() {
+        return dictionaries.get(0);
+    }
+
+    public List<String> foundedYears() {
+        return dictionaries.get(1);
+    }
+
+    public List<String> industries() {
+        return dictionaries.get(2);
+    }
+
+    // absolute reads only, the buffers are shared by the threads of a multi-threaded step
+    private String text(int column, int row) {
+
+        int start = offsets[column].getInt(row * 4);
+        int end = offsets[column].getInt(row * 4 + 4);
+
+        byte[] value = new byte[end - start];
+        texts[column].get(start, value);
+
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private record Header(int rows, String contentHash, long[] sectionLengths, long length) {
+
+        static Header read(InputStream inputStream) throws IOException {
+
+            DataInputStream input = new DataInputStream(inputStream);
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IllegalStateException("Not an organization column file of version " + VERSION);
+            }
+
+            int rows = input.readInt();
+            String contentHash = input.readUTF();
+            long[] sectionLengths = new long[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                sectionLengths[i] = input.readLong();
+            }
+
+            return new Header(rows, contentHash, sectionLengths, length(contentHash));
+        }
+
+        static void write(DataOutputStream output, int rows, String contentHash, long[] sectionLengths) throws IOException {
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(rows);
+            output.writeUTF(contentHash);
+            for (long sectionLength : sectionLengths) {
+                output.writeLong(sectionLength);
+            }
+        }
+
+        private static long length(String contentHash) {
+            return 3 * 4 + 2 + contentHash.getBytes(StandardCharsets.UTF_8).length + SECTIONS * 8L;
+        }
+    }
+
+    // Streams every section to its own temp file, they are concatenated behind the header on close,
+    // only the dictionaries of the three dimension columns are kept in memory
+    public static final class Writer implements Closeable {
+
+        private final Path file;
+
+        private final String contentHash;
+
+        private final Path[] spills = new Path[SECTIONS];
+
+        private final DataOutputStream[] sections = new DataOutputStream[SECTIONS];
+
+        private final int[] textEnds = new int[TEXT_COLUMNS];
+
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+
+        private int rows;
+
+        private Writer(Path file, String contentHash) throws IOException {
+
+            this.file = file;
+            this.contentHash = contentHash;
+
+            try {
+                for (int i = 0; i < SECTIONS; i++) {
+                    spills[i] = Files.createTempFile(file.toAbsolutePath().getParent(), "section-", ".tmp");
+                    sections[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spills[i]), 64 * 1024));
+                }
+                for (int column = 0; column < TEXT_COLUMNS; column++) {
+                    sections[2 + 2 * column].writeInt(0);
+                }
+            } catch (IOException e) {
+                discard();
+                throw e;
+            }
+
+            for (int column = 0; column < DICTIONARY_COLUMNS; column++) {
+                dictionaries.add(new HashMap<>());
+            }
+        }
+
+        public void add(OrganizationEntity organization) throws IOException {
+
+            if (rows == (Integer.MAX_VALUE - 8) / 8) {
+                throw new IllegalArgumentException("Too many rows for an organization column file");
+            }
+
+            sections[0].writeLong(organization.getEmployees());
+            sections[1].writeLong(organization.getRowHash());
+
+            text(0, organization.getOrganizationId());
+            text(1, organization.getName());
+            text(2, organization.getWebsite());
+            text(3, organization.getDescription());
+
+            code(0, organization.getCountry());
+            code(1, organization.getFounded());
+            code(2, organization.getIndustry());
+
+            rows++;
+        }
+
+        // writes the file, the spills are removed in any case
+        @Override
+        public void close() throws IOException {
+
+            try {
+                DataOutputStream dictionarySection = sections[SECTIONS - 1];
+                for (Map<String, Integer> dictionary : dictionaries) {
+
+                    String[] values = new String[dictionary.size()];
+                    dictionary.forEach((value, code) -> values[code] = value);
+
+                    dictionarySection.writeInt(values.length);
+                    for (String value : values) {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        dictionarySection.writeInt(bytes.length);
+                        dictionarySection.write(bytes);
+                    }
+                }
+
+                long[] sectionLengths = new long[SECTIONS];
+                for (int i = 0; i < SECTIONS; i++) {
+                    sections[i].close();
+                    sectionLengths[i] = Files.size(spills[i]);
+                }
+
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+
+                    Header.write(output, rows, contentHash, sectionLengths);
+                    for (Path spill : spills) {
+                        Files.copy(spill, output);
+                    }
+                }
+            } finally {
+                discard();
+            }
+        }
+
+        private void text(int column, String value) throws IOException {
+
+            byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            if (textEnds[column] > Integer.MAX_VALUE - bytes.length) {
+                throw new IllegalArgumentException("Text column " + column + " is larger than 2GB");
+            }
+
+            textEnds[column] += bytes.length;
+            sections[3 + 2 * column].write(bytes);
+            sections[2 + 2 * column].writeInt(textEnds[column]);
+        }
+
+        private void code(int column, String value) throws IOException {
+
+            Map<String, Integer> dictionary = dictionaries.get(column);
+            sections[2 + 2 * TEXT_COLUMNS + column].writeInt(dictionary.computeIfAbsent(value != null ? value : "", key -> dictionary.size()));
+        }
+
+        private void discard() throws IOException {
+
+            for (int i = 0; i < SECTIONS; i++) {
+                if (sections[i] != null) {
+                    closeQuietly(sections[i]);
+                }
+                if (spills[i] != null) {
+                    Files.deleteIfExists(spills[i]);
+                }
+            }
+        }
+
+        private static void closeQuietly(OutputStream outputStream) {
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                // already failed or closed
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+// Writes the rows of one export partition to its own csv file, optionally gzip compressed, without a header.
+// Not restartable, a restarted partition writes its file again from the start (its reader does not save state either)
+public class OrganizationCsvItemWriter implements ItemStreamWriter<OrganizationEntity> {
+
+    private final Path file;
+
+    private final boolean gzip;
+
+    private Writer writer;
+
+    public OrganizationCsvItemWriter(Path file, boolean gzip) {
+        this.file = file;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+
+        try {
+            writer = OrganizationExportService.writer(file, gzip);
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open " + file, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends OrganizationEntity> chunk) throws IOException {
+
+        for (OrganizationEntity organization : chunk) {
+            OrganizationExportService.writeLine(writer, organization);
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+            writer = null;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to close " + file, e);
+        }
+    }
+}
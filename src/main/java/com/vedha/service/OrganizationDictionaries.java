@@ -0,0 +1,162 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Dictionaries of the dimension tables countries, industries and founded_years, organizations only store the ids.
+// Warmed from the database on first use and shared by all jobs and threads, new values are inserted in their own
+// transaction, so the id stays valid even if the chunk that found the value is rolled back.
+// One insert at a time over all dictionaries, the worker holding the chunk connection takes a second one for it,
+// stepTaskExecutor reserves a single connection for these inserts
+@Slf4j
+@Component
+public class OrganizationDictionaries {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate requiresNew;
+
+    // locks, not synchronized, a virtual thread waiting for the connection would pin its carrier
+    private final Lock inserts = new ReentrantLock();
+
+    private final Lock loading = new ReentrantLock();
+
+    private final Dictionary countries;
+
+    private final Dictionary industries;
+
+    private final Dictionary foundedYears;
+
+    private volatile boolean loaded;
+
+    public OrganizationDictionaries(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.countries = new Dictionary(value -> assignId("countries", value));
+        this.industries = new Dictionary(value -> assignId("industries", value));
+        this.foundedYears = new Dictionary(value -> assignId("founded_years", value));
+    }
+
+    public Dictionary countries() {
+        return warm(countries);
+    }
+
+    public Dictionary industries() {
+        return warm(industries);
+    }
+
+    public Dictionary foundedYears() {
+        return warm(foundedYears);
+    }
+
+    // ids for an organization that was not built by OrganizationLineMapper
+    public void encode(OrganizationEntity organization) {
+
+        if (organization.getCountryId() == null && organization.getCountry() != null) {
+            Dictionary.Entry entry = countries().lookup(organization.getCountry());
+            organization.setCountryId(entry.id());
+            organization.setCountry(entry.value());
+        }
+        if (organization.getIndustryId() == null && organization.getIndustry() != null) {
+            Dictionary.Entry entry = industries().lookup(organization.getIndustry());
+            organization.setIndustryId(entry.id());
+            organization.setIndustry(entry.value());
+        }
+        if (organization.getFoundedId() == null && organization.getFounded() != null) {
+            Dictionary.Entry entry = foundedYears().lookup(organization.getFounded());
+            organization.setFoundedId(entry.id());
+            organization.setFounded(entry.value());
+        }
+    }
+
+    // values for an organization loaded from the database
+    public OrganizationEntity decode(OrganizationEntity organization) {
+
+        organization.setCountry(countries().value(organization.getCountryId()));
+        organization.setIndustry(industries().value(organization.getIndustryId()));
+        organization.setFounded(foundedYears().value(organization.getFoundedId()));
+
+        return organization;
+    }
+
+    private Dictionary warm(Dictionary dictionary) {
+
+        if (!loaded) {
+            load();
+        }
+
+        return dictionary;
+    }
+
+    private void load() {
+
+        loading.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+
+            load("countries", countries);
+            load("industries", industries);
+            load("founded_years", foundedYears);
+            loaded = true;
+
+            log.info("Dictionaries loaded, {} countries, {} industries, {} founded years", countries.size(), industries.size(), foundedYears.size());
+        } finally {
+            loading.unlock();
+        }
+    }
+
+    private void load(String table, Dictionary dictionary) {
+        jdbcTemplate.query("SELECT id, name FROM " + table, rs -> {
+            dictionary.load(rs.getInt(1), rs.getString(2));
+        });
+    }
+
+    private int assignId(String table, String value) {
+
+        inserts.lock();
+        try {
+            return insert(table, value);
+        } finally {
+            inserts.unlock();
+        }
+    }
+
+    private int insert(String table, String value) {
+
+        Integer id = requiresNew.execute(status -> {
+            try {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement("INSERT INTO " + table + " (name) VALUES (?)", new String[]{"id"});
+                    ps.setString(1, value);
+                    return ps;
+                }, keyHolder);
+
+                return Objects.requireNonNull(keyHolder.getKey()).intValue();
+            } catch (DuplicateKeyException e) {
+                // inserted by another instance since the dictionary was loaded
+                return jdbcTemplate.queryForObject("SELECT id FROM " + table + " WHERE name = ?", Integer.class, value);
+            }
+        });
+
+        return Objects.requireNonNull(id);
+    }
+}
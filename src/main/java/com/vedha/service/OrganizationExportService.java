@@ -0,0 +1,231 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Writes organizations back out in the import csv format, the id is written as the index column.
+// Rows are read in keyset pages (id > last id), the memory used does not depend on the size of the table
+@Slf4j
+@Service
+public class OrganizationExportService {
+
+    public static final String HEADER = "Index,Organization Id,Name,Website,Country,Description,Founded,Industry,Number of employees";
+
+    public static final String SELECT_COLUMNS = "id, organization_id, name, website, country_id, description, founded_id, industry_id, employees";
+
+    private static final String SELECT_PAGE_SQL = "SELECT " + SELECT_COLUMNS + " FROM organizations WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String PART_SUFFIX = ".part";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OrganizationDictionaries dictionaries;
+
+    private final Path exportDirectory;
+
+    private final int pageSize;
+
+    public OrganizationExportService(JdbcTemplate jdbcTemplate, OrganizationDictionaries dictionaries,
+                                     @Value("${batch.export.directory:exports}") Path exportDirectory,
+                                     @Value("${batch.export.page-size:1000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionaries = dictionaries;
+        this.exportDirectory = exportDirectory;
+        this.pageSize = pageSize;
+    }
+
+    // all organizations to the http response, one page in memory at a time
+    public long export(OutputStream outputStream, boolean gzip) throws IOException {
+
+        long rows = 0;
+        try (Writer writer = writer(outputStream, gzip)) {
+
+            writer.write(HEADER);
+            writer.write('\n');
+
+            long[] lastId = {Long.MIN_VALUE};
+            int pageRows;
+            do {
+                int[] count = {0};
+                jdbcTemplate.query(SELECT_PAGE_SQL, rs -> {
+                    OrganizationEntity organization = mapRow(rs, count[0]++);
+                    writeLine(writer, organization);
+                    lastId[0] = organization.getId();
+                }, lastId[0], pageSize);
+
+                pageRows = count[0];
+                rows += pageRows;
+                writer.flush(); // hand every page to the client
+            } while (pageRows == pageSize);
+        }
+
+        log.info("Exported {} organizations", rows);
+
+        return rows;
+    }
+
+    public OrganizationEntity mapRow(ResultSet rs, int rowNum) throws SQLException {
+
+        OrganizationEntity organization = new OrganizationEntity();
+        organization.setId(rs.getLong(1));
+        organization.setOrganizationId(rs.getString(2));
+        organization.setName(rs.getString(3));
+        organization.setWebsite(rs.getString(4));
+        organization.setCountryId(rs.getObject(5, Integer.class));
+        organization.setDescription(rs.getString(6));
+        organization.setFoundedId(rs.getObject(7, Integer.class));
+        organization.setIndustryId(rs.getObject(8, Integer.class));
+        organization.setEmployees(rs.getObject(9, Long.class));
+
+        return dictionaries.decode(organization);
+    }
+
+    // export files are only written below the export directory
+    public Path resolve(String fileName) {
+
+        if (fileName == null || fileName.isBlank() || !fileName.equals(Path.of(fileName).getFileName().toString()) || fileName.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid export file name: " + fileName);
+        }
+
+        return exportDirectory.resolve(fileName);
+    }
+
+    public Path part(Path output, int partitionIndex) {
+        return output.resolveSibling(output.getFileName() + PART_SUFFIX + partitionIndex);
+    }
+
+    public void deleteParts(Path output) {
+
+        try {
+            for (Path part : parts(output)) {
+                Files.delete(part);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // header followed by the partition files in partition order, gzip members can simply be concatenated
+    public void merge(Path output, boolean gzip) throws IOException {
+
+        List<Path> parts = parts(output);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream outputStream = Files.newOutputStream(output)) {
+
+            byte[] header = (HEADER + '\n').getBytes(StandardCharsets.UTF_8);
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+                gzipOutputStream.write(header);
+                gzipOutputStream.finish(); // own gzip member, the stream stays open for the parts
+            } else {
+                outputStream.write(header);
+            }
+
+            for (Path part : parts) {
+                Files.copy(part, outputStream);
+                Files.delete(part);
+            }
+        }
+
+        log.info("Export {} written from {} partitions", output, parts.size());
+    }
+
+    // part files of an export in partition order
+    private List<Path> parts(Path output) throws IOException {
+
+        Path directory = output.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        List<Path> parts = new ArrayList<>();
+        String prefix = output.getFileName() + PART_SUFFIX;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(prefix)).forEach(parts::add);
+        }
+        parts.sort(Comparator.comparingInt(part -> Integer.parseInt(part.getFileName().toString().substring(prefix.length()))));
+
+        return parts;
+    }
+
+    public static Writer writer(Path file, boolean gzip) throws IOException {
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        return writer(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), gzip);
+    }
+
+    static Writer writer(OutputStream outputStream, boolean gzip) throws IOException {
+
+        // sync flush, so a flushed page is sent to the client and not held back in the deflater
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024, true) : outputStream;
+
+        return new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public static void writeLine(Writer writer, OrganizationEntity organization) {
+
+        try {
+            writer.write(String.valueOf(organization.getId()));
+            writeField(writer, organization.getOrganizationId());
+            writeField(writer, organization.getName());
+            writeField(writer, organization.getWebsite());
+            writeField(writer, organization.getCountry());
+            writeField(writer, organization.getDescription());
+            writeField(writer, organization.getFounded());
+            writeField(writer, organization.getIndustry());
+            writer.write(',');
+            if (organization.getEmployees() != null) {
+                writer.write(String.valueOf(organization.getEmployees()));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // quoted only when needed, the way OrganizationLineMapper reads it back
+    private static void writeField(Writer writer, String value) throws IOException {
+
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.indexOf('"') < 0 ? value : value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
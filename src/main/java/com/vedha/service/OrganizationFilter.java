@@ -0,0 +1,138 @@
+package com.vedha.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Filter expression over the csv columns, evaluated by OrganizationLineMapper on the raw line before the entity is built.
+// Conditions are separated by ';' and all have to match, e.g. employees>1000;country=Germany|France;industry!=Dairy
+//  numeric columns (employees, founded): > >= < <= = !=
+//  text columns (organizationId, name, website, country, description, industry): = != with '|' separated alternatives
+public class OrganizationFilter {
+
+    private static final Pattern CONDITION = Pattern.compile("^\\s*(\\w+)\\s*(>=|<=|!=|=|>|<)\\s*(.*?)\\s*$");
+
+    private static final List<String> COLUMNS = List.of("index", "organizationId", "name", "website", "country", "description", "founded", "industry", "employees");
+
+    private static final List<String> NUMERIC_COLUMNS = List.of("employees", "founded");
+
+    private final List<Condition> conditions;
+
+    private OrganizationFilter(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    // null when there is nothing to filter, minEmployees is the employees > minEmployees filter of the jobs
+    public static OrganizationFilter of(String expression, Long minEmployees) {
+
+        List<Condition> conditions = new ArrayList<>();
+        if (minEmployees != null) {
+            conditions.add(new NumericCondition(COLUMNS.indexOf("employees"), ">", minEmployees));
+        }
+
+        if (expression != null && !expression.isBlank()) {
+            for (String condition : expression.split(";")) {
+                if (!condition.isBlank()) {
+                    conditions.add(parse(condition));
+                }
+            }
+        }
+
+        return conditions.isEmpty() ? null : new OrganizationFilter(List.copyOf(conditions));
+    }
+
+    public boolean test(String line, int[] bounds) {
+
+        for (Condition condition : conditions) {
+            if (!condition.test(line, bounds)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Condition parse(String condition) {
+
+        Matcher matcher = CONDITION.matcher(condition);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid filter condition: " + condition);
+        }
+
+        String column = matcher.group(1);
+        String operator = matcher.group(2);
+        String value = matcher.group(3);
+
+        int index = COLUMNS.indexOf(column);
+        if (index <= 0) {
+            throw new IllegalArgumentException("Unknown filter column: " + column + ", expected one of " + COLUMNS.subList(1, COLUMNS.size()));
+        }
+
+        if (NUMERIC_COLUMNS.contains(column)) {
+            try {
+                return new NumericCondition(index, operator, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Filter value of " + column + " should be a number: " + value, e);
+            }
+        }
+
+        if (!operator.equals("=") && !operator.equals("!=")) {
+            throw new IllegalArgumentException("Only = and != are supported for " + column);
+        }
+
+        return new TextCondition(index, operator.equals("="), List.of(value.split("\\|")));
+    }
+
+    private interface Condition {
+
+        boolean test(String line, int[] bounds);
+    }
+
+    private record NumericCondition(int column, String operator, long value) implements Condition {
+
+        @Override
+        public boolean test(String line, int[] bounds) {
+
+            long field = OrganizationLineMapper.parseLong(line, bounds[2 * column], bounds[2 * column + 1]);
+
+            return switch (operator) {
+                case ">" -> field > value;
+                case ">=" -> field >= value;
+                case "<" -> field < value;
+                case "<=" -> field <= value;
+                case "=" -> field == value;
+                default -> field != value;
+            };
+        }
+    }
+
+    private record TextCondition(int column, boolean equal, List<String> values) implements Condition {
+
+        @Override
+        public boolean test(String line, int[] bounds) {
+
+            int start = bounds[2 * column];
+            int end = bounds[2 * column + 1];
+
+            // compares in place, only a quoted field with "" escapes is turned into a string
+            if (end > start && line.charAt(start) == '"') {
+
+                int escapedQuote = line.indexOf("\"\"", start + 1);
+                if (escapedQuote >= 0 && escapedQuote < end - 1) {
+                    return values.contains(OrganizationLineMapper.value(line, start, end)) == equal;
+                }
+                start++;
+                end--;
+            }
+
+            for (String value : values) {
+                if (value.length() == end - start && line.regionMatches(start, value, 0, value.length())) {
+                    return equal;
+                }
+            }
+
+            return !equal;
+        }
+    }
+}
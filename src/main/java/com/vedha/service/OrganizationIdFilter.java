@@ -0,0 +1,63 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Drops organizations whose organizationId was already written in the same job execution, before they reach the database.
+// Keeps a 64 bit hash per organizationId in a LongHashSet (~16 bytes per row) instead of the strings.
+// A collision (~7e-5 for one pair among 50M ids) drops a different organization, OrganizationItemWriter adds every dropped row
+// to the filter count of the step, so the loss is visible there and not only in the debug log.
+// The set of a job execution is shared by its partitions and threads, and released by CustomJobListener when the job ends
+@Slf4j
+@Component
+public class OrganizationIdFilter {
+
+    private final Map<Long, LongHashSet> seenByJobExecution = new ConcurrentHashMap<>();
+
+    public List<OrganizationEntity> firstOccurrences(Long jobExecutionId, List<? extends OrganizationEntity> organizations) {
+
+        LongHashSet seen = seenByJobExecution.computeIfAbsent(jobExecutionId, id -> new LongHashSet(1 << 16));
+        List<OrganizationEntity> firstOccurrences = new ArrayList<>(organizations.size());
+
+        synchronized (seen) {
+            for (OrganizationEntity organization : organizations) {
+                if (organization.getOrganizationId() == null || seen.add(ContentFingerprint.hash64(organization.getOrganizationId()))) {
+                    firstOccurrences.add(organization);
+                }
+            }
+        }
+
+        if (firstOccurrences.size() < organizations.size()) {
+            log.debug("{} duplicate organizations dropped in job execution {}", organizations.size() - firstOccurrences.size(), jobExecutionId);
+        }
+
+        return firstOccurrences;
+    }
+
+    // organizations the database refused, a later row with the same organizationId is a first occurrence again
+    public void forget(Long jobExecutionId, List<? extends OrganizationEntity> organizations) {
+
+        LongHashSet seen = seenByJobExecution.get(jobExecutionId);
+        if (seen == null) {
+            return;
+        }
+
+        synchronized (seen) {
+            for (OrganizationEntity organization : organizations) {
+                if (organization.getOrganizationId() != null) {
+                    seen.remove(ContentFingerprint.hash64(organization.getOrganizationId()));
+                }
+            }
+        }
+    }
+
+    public void release(Long jobExecutionId) {
+        seenByJobExecution.remove(jobExecutionId);
+    }
+}
@@ -0,0 +1,120 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writer of the import steps, around the jdbc or jpa writer.
+//  the dimension ids are assigned here for organizations that did not come from OrganizationLineMapper.
+//  organizations already written in the same job execution are dropped (OrganizationIdFilter) and added to the filter count,
+//  so a row lost to a hash collision shows up there too.
+//  a delegate may remove rows it did not write from its chunk (BisectingItemWriter rejects), they are added to the write skip count
+//  and their organizationIds are forgotten, so a later valid row with the same id is still written.
+//  with aggregate the written organizations are folded into the summaries (OrganizationSummaryService).
+// Dropped rows are removed from the chunk, the write count of the step only counts the written rows.
+// The filter and skip counts are added in update, with the step lock held, as FilteringItemStreamReader does
+public class OrganizationItemWriter implements ItemStreamWriter<OrganizationEntity> {
+
+    private final ItemWriter<OrganizationEntity> delegate;
+
+    private final Long jobExecutionId;
+
+    private final boolean aggregate;
+
+    private final OrganizationDictionaries organizationDictionaries;
+
+    private final OrganizationIdFilter organizationIdFilter;
+
+    private final OrganizationSummaryService organizationSummaryService;
+
+    private final AtomicLong pendingFilterCount = new AtomicLong();
+
+    private final AtomicLong pendingWriteSkipCount = new AtomicLong();
+
+    public OrganizationItemWriter(ItemWriter<OrganizationEntity> delegate, Long jobExecutionId, boolean aggregate,
+                                  OrganizationDictionaries organizationDictionaries, OrganizationIdFilter organizationIdFilter,
+                                  OrganizationSummaryService organizationSummaryService) {
+        this.delegate = delegate;
+        this.jobExecutionId = jobExecutionId;
+        this.aggregate = aggregate;
+        this.organizationDictionaries = organizationDictionaries;
+        this.organizationIdFilter = organizationIdFilter;
+        this.organizationSummaryService = organizationSummaryService;
+    }
+
+    @Override
+    public void write(Chunk<? extends OrganizationEntity> chunk) throws Exception {
+
+        List<? extends OrganizationEntity> items = chunk.getItems();
+        items.forEach(organizationDictionaries::encode);
+
+        List<OrganizationEntity> firstOccurrences = organizationIdFilter.firstOccurrences(jobExecutionId, items);
+        Chunk<OrganizationEntity> written = new Chunk<>(firstOccurrences);
+        delegate.write(written);
+
+        List<OrganizationEntity> organizations = written.getItems();
+        if (organizations.size() < firstOccurrences.size()) {
+
+            List<OrganizationEntity> rejected = new ArrayList<>(firstOccurrences);
+            rejected.removeAll(identities(organizations));
+            organizationIdFilter.forget(jobExecutionId, rejected);
+            pendingWriteSkipCount.addAndGet(rejected.size());
+        }
+
+        if (organizations.size() < items.size()) {
+            pendingFilterCount.addAndGet(items.size() - firstOccurrences.size());
+            retain(chunk, organizations);
+        }
+
+        if (aggregate) {
+            organizationSummaryService.fold(jobExecutionId, organizations);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+
+        long filtered = pendingFilterCount.getAndSet(0);
+        long skipped = pendingWriteSkipCount.getAndSet(0);
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if ((filtered > 0 || skipped > 0) && stepContext != null) {
+
+            StepExecution stepExecution = stepContext.getStepExecution();
+            stepExecution.setFilterCount(stepExecution.getFilterCount() + filtered);
+            stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + skipped);
+        }
+    }
+
+    private static void retain(Chunk<? extends OrganizationEntity> chunk, List<OrganizationEntity> organizations) {
+
+        Set<OrganizationEntity> kept = identities(organizations);
+        for (Iterator<? extends OrganizationEntity> iterator = chunk.iterator(); iterator.hasNext(); ) {
+            if (!kept.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // by identity, the entity equals compares ids and new organizations have none yet
+    private static Set<OrganizationEntity> identities(List<OrganizationEntity> organizations) {
+
+        Set<OrganizationEntity> identities = Collections.newSetFromMap(new IdentityHashMap<>(organizations.size() * 2));
+        identities.addAll(organizations);
+
+        return identities;
+    }
+}
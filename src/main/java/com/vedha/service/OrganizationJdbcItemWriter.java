@@ -0,0 +1,71 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// Bulk writer for imports, the whole chunk is sent as one jdbc batch without going through the entity manager.
+// Upserts on organizationId, organizations that did not change are not updated, so a repeated import only writes the changed rows
+@RequiredArgsConstructor
+public class OrganizationJdbcItemWriter implements ItemWriter<OrganizationEntity> {
+
+    private static final String MERGE_SQL = """
+            MERGE INTO organizations o
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS INTEGER),
+                           CAST(? AS VARCHAR(255)), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BIGINT),
+                           CAST(? AS VARCHAR(255)), CAST(? AS BIGINT)))
+                AS s (id, organization_id, name, website, country_id, description, founded_id, industry_id, employees, source, row_hash)
+            ON o.organization_id = s.organization_id
+            WHEN MATCHED AND (o.name IS DISTINCT FROM s.name OR o.website IS DISTINCT FROM s.website OR o.country_id IS DISTINCT FROM s.country_id
+                OR o.description IS DISTINCT FROM s.description OR o.founded_id IS DISTINCT FROM s.founded_id OR o.industry_id IS DISTINCT FROM s.industry_id
+                OR o.employees IS DISTINCT FROM s.employees OR o.source IS DISTINCT FROM s.source OR o.row_hash IS DISTINCT FROM s.row_hash) THEN
+                UPDATE SET name = s.name, website = s.website, country_id = s.country_id, description = s.description,
+                    founded_id = s.founded_id, industry_id = s.industry_id, employees = s.employees, source = s.source, row_hash = s.row_hash
+            WHEN NOT MATCHED THEN
+                INSERT (id, organization_id, name, website, country_id, description, founded_id, industry_id, employees, source, row_hash)
+                VALUES (s.id, s.organization_id, s.name, s.website, s.country_id, s.description, s.founded_id, s.industry_id, s.employees, s.source, s.row_hash)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PooledIdAllocator idAllocator;
+
+    @Override
+    public void write(Chunk<? extends OrganizationEntity> chunk) {
+
+        List<? extends OrganizationEntity> items = chunk.getItems();
+        items.forEach(organization -> organization.setId(idAllocator.nextId())); // only used when the organization is new
+
+        jdbcTemplate.batchUpdate(MERGE_SQL, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+
+                OrganizationEntity organization = items.get(i);
+                ps.setLong(1, organization.getId());
+                ps.setString(2, organization.getOrganizationId());
+                ps.setString(3, organization.getName());
+                ps.setString(4, organization.getWebsite());
+                ps.setObject(5, organization.getCountryId());
+                ps.setString(6, organization.getDescription());
+                ps.setObject(7, organization.getFoundedId());
+                ps.setObject(8, organization.getIndustryId());
+                ps.setObject(9, organization.getEmployees());
+                ps.setString(10, organization.getSource());
+                ps.setObject(11, organization.getRowHash());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.FlatFileFormatException;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+// Maps a csv line straight to the entity by column position,
+// replaces DelimitedLineTokenizer + FieldSetMapper, which build a String[] and a FieldSet for every line and look up fields by name.
+// Columns: index, organizationId, name, website, country, description, founded, industry, employees
+// index is skipped without creating a string, quoted fields and "" escapes are supported.
+// With a filter the raw fields are tested before the entity is built, rejected lines are returned as FILTERED (null would end the reader).
+// Every row gets the hash of its fields (without the index), in a delta import the rows whose hash was already imported are FILTERED too.
+// With dictionaries country, founded and industry are looked up in place, equal values share one String and get their dimension id
+public class OrganizationLineMapper implements LineMapper<OrganizationEntity> {
+
+    public static final int COLUMN_COUNT = 9;
+
+    // marker for a line rejected by the filter, dropped by FilteringItemStreamReader
+    public static final OrganizationEntity FILTERED = new OrganizationEntity();
+
+    private static final char DELIMITER = ',';
+
+    private static final char QUOTE = '"';
+
+    private final String source;
+
+    private final OrganizationFilter filter;
+
+    private final LongHashSet previousRowHashes;
+
+    private final OrganizationDictionaries dictionaries;
+
+    public OrganizationLineMapper() {
+        this(null, null, null, null);
+    }
+
+    public OrganizationLineMapper(OrganizationFilter filter) {
+        this(null, filter, null, null);
+    }
+
+    public OrganizationLineMapper(String source, OrganizationFilter filter, LongHashSet previousRowHashes, OrganizationDictionaries dictionaries) {
+        this.source = source;
+        this.filter = filter;
+        this.previousRowHashes = previousRowHashes;
+        this.dictionaries = dictionaries;
+    }
+
+    @Override
+    public OrganizationEntity mapLine(String line, int lineNumber) {
+
+        // start and end of every field, bounds[2 * column] and bounds[2 * column + 1]
+        int[] bounds = new int[COLUMN_COUNT * 2];
+
+        int start = 0;
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+
+            if (start > line.length()) {
+                throw new IncorrectTokenCountException(COLUMN_COUNT, column, line);
+            }
+
+            int end = fieldEnd(line, start);
+            bounds[2 * column] = start;
+            bounds[2 * column + 1] = end;
+            start = end + 1;
+        }
+
+        if (start <= line.length()) {
+            throw new IncorrectTokenCountException(COLUMN_COUNT, COLUMN_COUNT + countFields(line, start), line);
+        }
+
+        if (filter != null && !filter.test(line, bounds)) {
+            return FILTERED;
+        }
+
+        long rowHash = ContentFingerprint.hash64(line, bounds[2], line.length());
+        if (previousRowHashes != null && previousRowHashes.contains(rowHash)) {
+            return FILTERED; // unchanged since the previous import
+        }
+
+        OrganizationEntity organization = new OrganizationEntity();
+        organization.setSource(source);
+        organization.setRowHash(rowHash);
+        organization.setOrganizationId(value(line, bounds[2], bounds[3]));
+        organization.setName(value(line, bounds[4], bounds[5]));
+        organization.setWebsite(value(line, bounds[6], bounds[7]));
+        organization.setDescription(value(line, bounds[10], bounds[11]));
+        organization.setEmployees(parseLong(line, bounds[16], bounds[17]));
+
+        if (dictionaries == null) {
+            organization.setCountry(value(line, bounds[8], bounds[9]));
+            organization.setFounded(value(line, bounds[12], bounds[13]));
+            organization.setIndustry(value(line, bounds[14], bounds[15]));
+            return organization;
+        }
+
+        Dictionary.Entry country = entry(dictionaries.countries(), line, bounds[8], bounds[9]);
+        organization.setCountry(country.value());
+        organization.setCountryId(country.id());
+
+        Dictionary.Entry founded = entry(dictionaries.foundedYears(), line, bounds[12], bounds[13]);
+        organization.setFounded(founded.value());
+        organization.setFoundedId(founded.id());
+
+        Dictionary.Entry industry = entry(dictionaries.industries(), line, bounds[14], bounds[15]);
+        organization.setIndustry(industry.value());
+        organization.setIndustryId(industry.id());
+
+        return organization;
+    }
+
+    private static Dictionary.Entry entry(Dictionary dictionary, String line, int start, int end) {
+
+        if (end > start && line.charAt(start) == QUOTE) {
+            return dictionary.lookup(value(line, start, end)); // quoted, unquote first
+        }
+
+        return dictionary.lookup(line, start, end);
+    }
+
+    // index of the delimiter that ends the field starting at start, or the line length for the last field
+    static int fieldEnd(String line, int start) {
+
+        int length = line.length();
+        if (start < length && line.charAt(start) == QUOTE) {
+
+            int position = start + 1;
+            while (true) {
+
+                int quote = line.indexOf(QUOTE, position);
+                if (quote < 0) {
+                    throw new FlatFileFormatException("Unbalanced quotes in line", line);
+                }
+                if (quote + 1 < length && line.charAt(quote + 1) == QUOTE) {
+                    position = quote + 2; // escaped quote
+                    continue;
+                }
+                if (quote + 1 < length && line.charAt(quote + 1) != DELIMITER) {
+                    throw new FlatFileFormatException("Unexpected character after closing quote in line", line);
+                }
+                return quote + 1;
+            }
+        }
+
+        int delimiter = line.indexOf(DELIMITER, start);
+        return delimiter < 0 ? length : delimiter;
+    }
+
+    static String value(String line, int start, int end) {
+
+        if (end > start && line.charAt(start) == QUOTE) {
+
+            String value = line.substring(start + 1, end - 1);
+            return value.indexOf(QUOTE) < 0 ? value : value.replace("\"\"", "\"");
+        }
+
+        return line.substring(start, end);
+    }
+
+    static long parseLong(String line, int start, int end) {
+
+        if (end - start >= 2 && line.charAt(start) == QUOTE) {
+            start++;
+            end--;
+        }
+
+        while (start < end && Character.isWhitespace(line.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) end--;
+
+        // no substring needed, parses the chars in place
+        return Long.parseLong(line, start, end, 10);
+    }
+
+    private static int countFields(String line, int start) {
+
+        int count = 0;
+        while (start <= line.length()) {
+            start = fieldEnd(line, start) + 1;
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package com.vedha.service;
+
+import com.vedha.config.CacheConfig;
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.repository.OrgRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.web.PagedModel;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Paged organization queries on country, industry and an employee range, served by the V8 indexes.
+// Pages are cached until a job writes organizations (CustomJobListener), running imports do not slow down the reads
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrganizationQueryService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final OrgRepository orgRepository;
+
+    private final OrganizationDictionaries dictionaries;
+
+    @Cacheable(CacheConfig.ORGANIZATIONS_CACHE)
+    @Transactional(readOnly = true)
+    public PagedModel<OrganizationEntity> find(String country, String industry, Long minEmployees, Long maxEmployees, int page, int size) {
+
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+
+        // names are compared by their dimension id, an unknown name cannot match any organization
+        Dictionary.Entry countryEntry = country != null ? dictionaries.countries().find(country) : null;
+        Dictionary.Entry industryEntry = industry != null ? dictionaries.industries().find(industry) : null;
+        if ((country != null && countryEntry == null) || (industry != null && industryEntry == null)) {
+            return new PagedModel<>(Page.empty(pageRequest));
+        }
+
+        Specification<OrganizationEntity> specification = Specification.where(null);
+        if (countryEntry != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("countryId"), countryEntry.id()));
+        }
+        if (industryEntry != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("industryId"), industryEntry.id()));
+        }
+        if (minEmployees != null) {
+            specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("employees"), minEmployees));
+        }
+        if (maxEmployees != null) {
+            specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("employees"), maxEmployees));
+        }
+
+        Page<OrganizationEntity> organizations = orgRepository.findAll(specification, pageRequest);
+        organizations.forEach(dictionaries::decode);
+
+        return new PagedModel<>(organizations);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS_CACHE, allEntries = true)
+    public void evictAll() {
+        log.info("Organization query cache cleared");
+    }
+}
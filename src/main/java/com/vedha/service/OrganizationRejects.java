@@ -0,0 +1,116 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringWriter;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Rows of an import that could not be read or written go to organization_rejects instead of failing the job (batch.fault-tolerance).
+// Inserted in their own transaction, a reject is kept when the chunk it came from rolls back.
+// One insert at a time, stepTaskExecutor reserves a single connection for them besides the chunk connections.
+// More than reject-limit rejects in one job execution fail the job, a broken file or a schema mismatch should not be swallowed
+@Slf4j
+@Service
+public class OrganizationRejects {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO organization_rejects (job_execution_id, source, line_number, stage, content, error, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate requiresNew;
+
+    private final long rejectLimit;
+
+    private final Lock inserts = new ReentrantLock();
+
+    private final Map<Long, AtomicLong> rejectsByJob = new ConcurrentHashMap<>();
+
+    public record Reject(Long jobExecutionId, String source, Integer lineNumber, String stage, String content, String error) {
+    }
+
+    public OrganizationRejects(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${batch.fault-tolerance.reject-limit:1000}") long rejectLimit) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rejectLimit = rejectLimit;
+    }
+
+    public void rejectLine(Long jobExecutionId, String source, int lineNumber, String line, Exception error) {
+        reject(new Reject(jobExecutionId, source, lineNumber, "read", line, message(error)));
+    }
+
+    public void rejectWrite(Long jobExecutionId, OrganizationEntity organization, Exception error) {
+
+        StringWriter line = new StringWriter();
+        OrganizationExportService.writeLine(line, organization);
+
+        reject(new Reject(jobExecutionId, organization.getSource(), null, "write", line.toString().stripTrailing(), message(error)));
+    }
+
+    public List<Reject> rejects(Long jobExecutionId) {
+
+        return jdbcTemplate.query("SELECT job_execution_id, source, line_number, stage, content, error FROM organization_rejects WHERE job_execution_id = ? ORDER BY id",
+                (rs, rowNum) -> new Reject(rs.getLong(1), rs.getString(2), (Integer) rs.getObject(3), rs.getString(4), rs.getString(5), rs.getString(6)),
+                jobExecutionId);
+    }
+
+    // number of rejects of the job execution, forgotten afterwards
+    public long release(Long jobExecutionId) {
+
+        AtomicLong rejects = rejectsByJob.remove(jobExecutionId);
+        return rejects != null ? rejects.get() : 0;
+    }
+
+    private void reject(Reject reject) {
+
+        long rejects = rejectsByJob.computeIfAbsent(reject.jobExecutionId(), key -> new AtomicLong()).incrementAndGet();
+        if (rejects > rejectLimit) {
+            throw new IllegalStateException("More than " + rejectLimit + " rejected rows in job execution " + reject.jobExecutionId() + ", last: " + reject.error());
+        }
+
+        log.debug("Rejected {} row {} of {}: {}", reject.stage(), reject.lineNumber(), reject.source(), reject.error());
+
+        inserts.lock();
+        try {
+            requiresNew.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, reject.jobExecutionId(), truncate(reject.source(), 255),
+                    reject.lineNumber(), reject.stage(), truncate(reject.content(), 4000), truncate(reject.error(), 1000), Timestamp.from(Instant.now())));
+        } finally {
+            inserts.unlock();
+        }
+    }
+
+    // the most specific cause, e.g. the value too long message of the database instead of the spring wrapper
+    private static String message(Exception error) {
+
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+
+        String message = cause.getMessage();
+        return cause.getClass().getSimpleName() + (message != null ? ": " + message : "");
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+}
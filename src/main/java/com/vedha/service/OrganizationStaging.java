@@ -0,0 +1,116 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Converts a csv source once into an OrganizationColumnFile (batch.staging), later runs of the same content read that file.
+// The file name holds a key of the source location and the content hash of the csv, a changed csv gets a new file
+// and the files of its previous content are deleted
+@Slf4j
+@Service
+public class OrganizationStaging {
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public OrganizationStaging(@Value("${batch.staging.enabled:true}") boolean enabled,
+                               @Value("${batch.staging.directory:staging}") String directory) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    // the staged file of the current content, null when staging is disabled, the csv is too large for the format or has malformed lines
+    public Path stage(String location, Resource resource) throws Exception {
+
+        if (!enabled) {
+            return null;
+        }
+
+        // reading the csv once for the hash is far cheaper than parsing it
+        String contentHash = ContentFingerprint.sha256(resource.getInputStream());
+        String key = HexFormat.of().toHexDigits(ContentFingerprint.hash64(location));
+        Path file = directory.resolve(key + "-" + contentHash.substring(0, 16) + ".orgc");
+
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+
+            if (Files.exists(file) && OrganizationColumnFile.matches(file, contentHash)) {
+                return file;
+            }
+
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try {
+                int rows = convert(resource, temp, contentHash);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Staged {} rows of {} in {}", rows, location, file);
+            } catch (IllegalArgumentException | FlatFileParseException e) {
+                // too large for the format, or malformed lines that the csv reader of the import rejects or fails on
+                log.warn("{} is not staged, the csv is read instead: {}", location, e.getMessage());
+                return null;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            deleteOthers(key, file);
+        }
+
+        return file;
+    }
+
+    private static int convert(Resource resource, Path target, String contentHash) throws Exception {
+
+        FlatFileItemReader<OrganizationEntity> reader = new FlatFileItemReaderBuilder<OrganizationEntity>()
+                .name("organizationStagingReader")
+                .resource(resource)
+                .linesToSkip(1)
+                .lineMapper(new OrganizationLineMapper())
+                .saveState(false)
+                .build();
+
+        int rows = 0;
+        reader.open(new ExecutionContext());
+        try (OrganizationColumnFile.Writer writer = OrganizationColumnFile.writer(target, contentHash)) {
+
+            OrganizationEntity organization;
+            while ((organization = reader.read()) != null) {
+                writer.add(organization);
+                rows++;
+            }
+        } finally {
+            reader.close();
+        }
+
+        return rows;
+    }
+
+    // staged files of an earlier content of the same source
+    private void deleteOthers(String key, Path current) throws IOException {
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, key + "-*.orgc")) {
+            for (Path file : files) {
+                if (!file.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
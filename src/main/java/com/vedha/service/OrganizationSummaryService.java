@@ -0,0 +1,151 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Aggregates of the organizations written by an import, computed while the rows pass through the writer.
+// Every chunk is folded into its own aggregates, after the chunk commits they are merged into one of the partials of the job,
+// a partial is only used by one thread at a time, so there are about as many partials as concurrent writers and no locks.
+// When the job completes the partials are merged and upserted into organization_summaries, replacing the previous import of the source
+@Slf4j
+@Service
+public class OrganizationSummaryService {
+
+    public record Summary(String key, long organizations, long employees) {
+    }
+
+    public static final List<String> DIMENSIONS = List.of("country", "industry", "founded_decade");
+
+    private static final String UPSERT_SQL = """
+            MERGE INTO organization_summaries (source, dimension, dimension_key, organizations, employees, job_execution_id, updated_at)
+            KEY (source, dimension, dimension_key)
+            VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String DELETE_STALE_SQL = "DELETE FROM organization_summaries WHERE source = ? AND job_execution_id <> ?";
+
+    private static final String SELECT_SQL = """
+            SELECT dimension_key, SUM(organizations), SUM(employees) FROM organization_summaries
+            WHERE dimension = ? AND (CAST(? AS VARCHAR(255)) IS NULL OR source = ?)
+            GROUP BY dimension_key ORDER BY 2 DESC, 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OrganizationDictionaries dictionaries;
+
+    private final Map<Long, Queue<Map<String, OrganizationAggregates>>> partialsByJobExecution = new ConcurrentHashMap<>();
+
+    public OrganizationSummaryService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, OrganizationDictionaries dictionaries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dictionaries = dictionaries;
+    }
+
+    // called by the writer inside the chunk transaction, a rolled back chunk is not counted
+    public void fold(Long jobExecutionId, List<? extends OrganizationEntity> organizations) {
+
+        Map<String, OrganizationAggregates> chunk = new HashMap<>();
+        for (OrganizationEntity organization : organizations) {
+            chunk.computeIfAbsent(organization.getSource() != null ? organization.getSource() : "", source -> new OrganizationAggregates()).add(organization);
+        }
+
+        Queue<Map<String, OrganizationAggregates>> partials = partialsByJobExecution.computeIfAbsent(jobExecutionId, id -> new ConcurrentLinkedQueue<>());
+        Runnable merge = () -> {
+
+            Map<String, OrganizationAggregates> partial = partials.poll(); // taken out, no other thread can use it meanwhile
+            if (partial == null) {
+                partial = new HashMap<>();
+            }
+            merge(partial, chunk);
+            partials.offer(partial);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge.run();
+                }
+            });
+        } else {
+            merge.run();
+        }
+    }
+
+    // a failed import leaves the previous summaries of the source as they are, its partials are dropped here as well.
+    // So does a restarted import, the partials only hold the rows of this execution, the chunks committed before the restart are missing
+    public void complete(JobExecution jobExecution, boolean restarted) {
+
+        Queue<Map<String, OrganizationAggregates>> partials = partialsByJobExecution.remove(jobExecution.getId());
+        if (partials == null || jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return;
+        }
+        if (restarted) {
+            log.warn("Summaries not updated by the restarted job execution {}, import the source again with aggregate=true", jobExecution.getId());
+            return;
+        }
+
+        Map<String, OrganizationAggregates> total = new HashMap<>();
+        partials.forEach(partial -> merge(total, partial));
+
+        transactionTemplate.executeWithoutResult(status -> total.forEach((source, aggregates) -> {
+
+            List<Object[]> rows = new ArrayList<>();
+            aggregates.countries().forEach((key, count, sum) -> rows.add(new Object[]{source, "country", key, count, sum, jobExecution.getId()}));
+            aggregates.industries().forEach((key, count, sum) -> rows.add(new Object[]{source, "industry", key, count, sum, jobExecution.getId()}));
+            aggregates.foundedDecades().forEach((key, count, sum) -> rows.add(new Object[]{source, "founded_decade", key, count, sum, jobExecution.getId()}));
+
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            jdbcTemplate.update(DELETE_STALE_SQL, source, jobExecution.getId());
+
+            log.info("{} summaries of {} upserted", rows.size(), source);
+        }));
+    }
+
+    // totals over all sources, or of one source
+    public List<Summary> summaries(String dimension, String source) {
+
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new IllegalArgumentException("dimension must be one of " + DIMENSIONS);
+        }
+
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Summary(label(dimension, rs.getInt(1)), rs.getLong(2), rs.getLong(3)),
+                dimension, source, source);
+    }
+
+    private String label(String dimension, int key) {
+
+        if (key == OrganizationAggregates.UNKNOWN) {
+            return "unknown";
+        }
+
+        return switch (dimension) {
+            case "country" -> dictionaries.countries().value(key);
+            case "industry" -> dictionaries.industries().value(key);
+            default -> key + "s";
+        };
+    }
+
+    private static void merge(Map<String, OrganizationAggregates> target, Map<String, OrganizationAggregates> source) {
+        source.forEach((name, aggregates) -> target.computeIfAbsent(name, n -> new OrganizationAggregates()).merge(aggregates));
+    }
+}
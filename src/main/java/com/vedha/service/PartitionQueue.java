@@ -0,0 +1,95 @@
+package com.vedha.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// Partitions in the shared database, the manager enqueues them and the workers of every instance claim them.
+// Every change is one conditional update, an instance only wins a claim or a reclaim when the row is still in the state it saw
+@Component
+@RequiredArgsConstructor
+public class PartitionQueue {
+
+    public enum Status {
+        PENDING, CLAIMED, COMPLETED, FAILED
+    }
+
+    public record Claim(long id, long jobExecutionId, String stepName, long stepExecutionId, Status status, String worker, int attempts) {
+
+        public boolean finished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+    }
+
+    private static final String SELECT_COLUMNS = "SELECT id, job_execution_id, step_name, step_execution_id, status, worker, attempts FROM batch_partitions";
+
+    private static final RowMapper<Claim> CLAIM_MAPPER = (rs, rowNum) -> new Claim(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getLong(4),
+            Status.valueOf(rs.getString(5)), rs.getString(6), rs.getInt(7));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void enqueue(long jobExecutionId, String stepName, List<Long> stepExecutionIds) {
+
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO batch_partitions (job_execution_id, step_name, step_execution_id, status, attempts, created_at)
+                        VALUES (?, ?, ?, 'PENDING', 0, CURRENT_TIMESTAMP)
+                        """,
+                stepExecutionIds.stream().map(stepExecutionId -> new Object[]{jobExecutionId, stepName, stepExecutionId}).toList());
+    }
+
+    // oldest pending partition, empty when there is none or other workers were faster
+    public Optional<Claim> claim(String worker) {
+
+        List<Long> candidates = jdbcTemplate.queryForList("SELECT id FROM batch_partitions WHERE status = 'PENDING' ORDER BY id LIMIT 5", Long.class);
+        for (Long id : candidates) {
+
+            int claimed = jdbcTemplate.update("""
+                    UPDATE batch_partitions SET status = 'CLAIMED', worker = ?, claimed_at = CURRENT_TIMESTAMP, heartbeat_at = CURRENT_TIMESTAMP, attempts = attempts + 1
+                    WHERE id = ? AND status = 'PENDING'
+                    """, worker, id);
+            if (claimed == 1) {
+                return Optional.of(jdbcTemplate.queryForObject(SELECT_COLUMNS + " WHERE id = ?", CLAIM_MAPPER, id));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public void heartbeat(String worker) {
+        jdbcTemplate.update("UPDATE batch_partitions SET heartbeat_at = CURRENT_TIMESTAMP WHERE worker = ? AND status = 'CLAIMED'", worker);
+    }
+
+    // false when the partition was reclaimed from this worker meanwhile
+    public boolean finish(Claim claim, Status status) {
+        return jdbcTemplate.update("UPDATE batch_partitions SET status = ?, heartbeat_at = CURRENT_TIMESTAMP WHERE id = ? AND worker = ? AND status = 'CLAIMED'",
+                status.name(), claim.id(), claim.worker()) == 1;
+    }
+
+    public List<Claim> claims(long jobExecutionId) {
+        return jdbcTemplate.query(SELECT_COLUMNS + " WHERE job_execution_id = ? ORDER BY id", CLAIM_MAPPER, jobExecutionId);
+    }
+
+    public List<Claim> stale(long jobExecutionId, Duration workerTimeout) {
+        return jdbcTemplate.query(SELECT_COLUMNS + " WHERE job_execution_id = ? AND status = 'CLAIMED' AND heartbeat_at < DATEADD('MILLISECOND', -?, CURRENT_TIMESTAMP)",
+                CLAIM_MAPPER, jobExecutionId, workerTimeout.toMillis());
+    }
+
+    // takes a stale partition away from its worker, false when the worker finished or sent a heartbeat meanwhile
+    public boolean revoke(Claim claim, Duration workerTimeout) {
+        return jdbcTemplate.update("""
+                UPDATE batch_partitions SET status = 'FAILED'
+                WHERE id = ? AND worker = ? AND status = 'CLAIMED' AND heartbeat_at < DATEADD('MILLISECOND', -?, CURRENT_TIMESTAMP)
+                """, claim.id(), claim.worker(), workerTimeout.toMillis()) == 1;
+    }
+
+    // a revoked partition queued again with a new step execution
+    public void requeue(Claim claim, long stepExecutionId) {
+        jdbcTemplate.update("UPDATE batch_partitions SET status = 'PENDING', worker = NULL, step_execution_id = ? WHERE id = ? AND status = 'FAILED'",
+                stepExecutionId, claim.id());
+    }
+}
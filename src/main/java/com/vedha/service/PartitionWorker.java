@@ -0,0 +1,182 @@
+package com.vedha.service;
+
+import com.vedha.service.PartitionQueue.Claim;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Worker side of the database partitioning, every instance with batch.partitioning.mode=database runs these threads,
+// they claim queued partitions and execute the worker step for them, a heartbeat marks the claimed partitions as alive.
+// The per job caches (row hashes, organization ids) of this instance are released once the job has ended
+@Slf4j
+@Component
+public class PartitionWorker {
+
+    private final PartitionQueue partitionQueue;
+
+    private final JobExplorer jobExplorer;
+
+    private final ApplicationContext applicationContext;
+
+    private final RowHashIndex rowHashIndex;
+
+    private final OrganizationIdFilter organizationIdFilter;
+
+    private final boolean enabled;
+
+    private final int workerThreads;
+
+    private final Duration pollInterval;
+
+    private final Duration heartbeatInterval;
+
+    private final String workerId;
+
+    private final Set<Long> jobExecutionIds = ConcurrentHashMap.newKeySet(); // jobs with caches in this instance
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private ScheduledExecutorService heartbeat;
+
+    private volatile boolean running;
+
+    public PartitionWorker(PartitionQueue partitionQueue, JobExplorer jobExplorer, ApplicationContext applicationContext,
+                           RowHashIndex rowHashIndex, OrganizationIdFilter organizationIdFilter,
+                           @Value("${batch.partitioning.mode:local}") String mode,
+                           @Value("${batch.partitioning.worker-threads:2}") int workerThreads,
+                           @Value("${batch.partitioning.poll-interval:1s}") Duration pollInterval,
+                           @Value("${batch.partitioning.heartbeat-interval:5s}") Duration heartbeatInterval) {
+
+        this.partitionQueue = partitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.applicationContext = applicationContext;
+        this.rowHashIndex = rowHashIndex;
+        this.organizationIdFilter = organizationIdFilter;
+        this.enabled = "database".equalsIgnoreCase(mode);
+        this.workerThreads = workerThreads;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.workerId = hostName() + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!enabled || workerThreads <= 0) {
+            return;
+        }
+
+        running = true;
+        heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-heartbeat-"));
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < workerThreads; i++) {
+            threads.add(Thread.ofVirtual().name("partition-worker-" + i).start(this::work));
+        }
+
+        log.info("Partition worker {} started with {} threads", workerId, workerThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+
+        running = false;
+        threads.forEach(Thread::interrupt);
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    private void work() {
+
+        while (running) {
+            try {
+                Optional<Claim> claim = partitionQueue.claim(workerId);
+                if (claim.isPresent()) {
+                    execute(claim.get());
+                } else {
+                    releaseEndedJobs();
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Partition worker error", e);
+            }
+        }
+    }
+
+    private void execute(Claim claim) {
+
+        StepExecution stepExecution = jobExplorer.getStepExecution(claim.jobExecutionId(), claim.stepExecutionId());
+        Step step = applicationContext.getBean(claim.stepName(), Step.class);
+        jobExecutionIds.add(claim.jobExecutionId());
+
+        log.info("Partition {} claimed, attempt {}", stepExecution.getStepName(), claim.attempts());
+        try {
+            step.execute(stepExecution); // failures end up in the status of the step execution
+        } catch (Exception e) {
+            log.error("Partition {} interrupted", stepExecution.getStepName(), e);
+        }
+
+        PartitionQueue.Status status = stepExecution.getStatus() == BatchStatus.COMPLETED ? PartitionQueue.Status.COMPLETED : PartitionQueue.Status.FAILED;
+        if (!partitionQueue.finish(claim, status)) {
+            log.warn("Partition {} was reclaimed by the manager, result {} ignored", stepExecution.getStepName(), status);
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            partitionQueue.heartbeat(workerId);
+        } catch (RuntimeException e) {
+            log.warn("Heartbeat failed", e);
+        }
+    }
+
+    private void releaseEndedJobs() {
+
+        jobExecutionIds.removeIf(jobExecutionId -> {
+
+            JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+            if (jobExecution != null && jobExecution.isRunning()) {
+                return false;
+            }
+
+            rowHashIndex.release(jobExecutionId);
+            organizationIdFilter.release(jobExecutionId);
+            return true;
+        });
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.vedha.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out ids from a database sequence with the pooled-lo strategy, same as hibernate does for the entity,
+// one sequence call reserves incrementSize ids, so a chunk of 1000 rows needs only 20 round trips instead of 1000.
+// A lock instead of synchronized, the step workers are virtual threads and would pin their carriers during the sequence call
+public class PooledIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nextValueSql;
+
+    private final int incrementSize;
+
+    private long next;
+
+    private long limit;
+
+    private final Lock lock = new ReentrantLock();
+
+    public PooledIdAllocator(JdbcTemplate jdbcTemplate, String sequenceName, int incrementSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = "SELECT NEXT VALUE FOR " + sequenceName;
+        this.incrementSize = incrementSize;
+    }
+
+    public long nextId() {
+
+        lock.lock();
+        try {
+            if (next == limit) {
+
+                Long low = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                next = low;
+                limit = low + incrementSize;
+            }
+
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
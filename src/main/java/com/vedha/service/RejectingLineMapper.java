@@ -0,0 +1,33 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.FlatFileFormatException;
+
+// Malformed lines (wrong column count, unbalanced quotes, a non numeric employees, invalid json) are stored as rejects
+// and returned as FILTERED, the reader carries on with the next line.
+// Only parse failures, a failing dictionary insert or database outage still fails the step
+@RequiredArgsConstructor
+public class RejectingLineMapper implements LineMapper<OrganizationEntity> {
+
+    private final LineMapper<OrganizationEntity> delegate;
+
+    private final OrganizationRejects organizationRejects;
+
+    private final Long jobExecutionId;
+
+    private final String source;
+
+    @Override
+    public OrganizationEntity mapLine(String line, int lineNumber) throws Exception {
+
+        try {
+            return delegate.mapLine(line, lineNumber);
+        } catch (FlatFileFormatException | FlatFileParseException | NumberFormatException e) { // IncorrectTokenCountException is a FlatFileFormatException
+            organizationRejects.rejectLine(jobExecutionId, source, lineNumber, line, e);
+            return OrganizationLineMapper.FILTERED;
+        }
+    }
+}
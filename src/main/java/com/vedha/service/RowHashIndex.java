@@ -0,0 +1,45 @@
+package com.vedha.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Row hashes of the previous import of a source, loaded once per job execution and source for the delta imports
+// and shared read only by its partitions and threads, released by CustomJobListener when the job ends
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RowHashIndex {
+
+    private static final String SELECT_ROW_HASHES_SQL = "SELECT row_hash FROM organizations WHERE source = ? AND row_hash IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // a job can import several sources, e.g. the files of a directory batch
+    private final Map<Long, Map<String, LongHashSet>> rowHashesByJobExecution = new ConcurrentHashMap<>();
+
+    public LongHashSet previousRowHashes(Long jobExecutionId, String source) {
+
+        Map<String, LongHashSet> rowHashesBySource = rowHashesByJobExecution.computeIfAbsent(jobExecutionId, id -> new ConcurrentHashMap<>());
+
+        return rowHashesBySource.computeIfAbsent(source, key -> {
+
+            LongHashSet rowHashes = new LongHashSet(1 << 16);
+            jdbcTemplate.query(SELECT_ROW_HASHES_SQL, rs -> {
+                rowHashes.add(rs.getLong(1));
+            }, source);
+
+            log.info("{} row hashes loaded for the delta import of {}", rowHashes.size(), source);
+
+            return rowHashes;
+        });
+    }
+
+    public void release(Long jobExecutionId) {
+        rowHashesByJobExecution.remove(jobExecutionId);
+    }
+}
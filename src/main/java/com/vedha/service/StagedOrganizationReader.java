@@ -0,0 +1,114 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reads a staged OrganizationColumnFile instead of the csv. Rows at or below minEmployees are rejected from the employees column alone
+// and returned as FILTERED, no text of them is decoded, in a delta import so are the rows whose hash was already imported. The dimension values are resolved against OrganizationDictionaries once per
+// distinct value, not once per row. Every read takes the next row number, so the reader can be shared by the threads of a step
+public class StagedOrganizationReader implements ItemStreamReader<OrganizationEntity> {
+
+    private final Path file;
+
+    private final String source;
+
+    private final Long minEmployees;
+
+    private final LongHashSet previousRowHashes;
+
+    private final OrganizationDictionaries dictionaries;
+
+    private final AtomicInteger nextRow = new AtomicInteger();
+
+    private OrganizationColumnFile columns;
+
+    private Dictionary.Entry[] countries;
+
+    private Dictionary.Entry[] foundedYears;
+
+    private Dictionary.Entry[] industries;
+
+    public StagedOrganizationReader(Path file, String source, Long minEmployees, LongHashSet previousRowHashes, OrganizationDictionaries dictionaries) {
+        this.file = file;
+        this.source = source;
+        this.minEmployees = minEmployees;
+        this.previousRowHashes = previousRowHashes;
+        this.dictionaries = dictionaries;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+
+        try {
+            columns = OrganizationColumnFile.open(file);
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open the staged file " + file, e);
+        }
+
+        countries = entries(dictionaries.countries(), columns.countries());
+        foundedYears = entries(dictionaries.foundedYears(), columns.foundedYears());
+        industries = entries(dictionaries.industries(), columns.industries());
+        nextRow.set(0);
+    }
+
+    @Override
+    public OrganizationEntity read() {
+
+        int row = nextRow.getAndIncrement();
+        if (row >= columns.rows()) {
+            return null;
+        }
+
+        if (minEmployees != null && columns.employees(row) <= minEmployees) {
+            return OrganizationLineMapper.FILTERED;
+        }
+
+        long rowHash = columns.rowHash(row);
+        if (previousRowHashes != null && previousRowHashes.contains(rowHash)) {
+            return OrganizationLineMapper.FILTERED; // unchanged since the previous import
+        }
+
+        Dictionary.Entry country = countries[columns.countryCode(row)];
+        Dictionary.Entry founded = foundedYears[columns.foundedCode(row)];
+        Dictionary.Entry industry = industries[columns.industryCode(row)];
+
+        OrganizationEntity organization = new OrganizationEntity();
+        organization.setSource(source);
+        organization.setRowHash(rowHash);
+        organization.setOrganizationId(columns.organizationId(row));
+        organization.setName(columns.name(row));
+        organization.setWebsite(columns.website(row));
+        organization.setDescription(columns.description(row));
+        organization.setEmployees(columns.employees(row));
+        organization.setCountry(country.value());
+        organization.setCountryId(country.id());
+        organization.setFounded(founded.value());
+        organization.setFoundedId(founded.id());
+        organization.setIndustry(industry.value());
+        organization.setIndustryId(industry.id());
+
+        return organization;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        columns = null; // unmapped by the garbage collector
+    }
+
+    private static Dictionary.Entry[] entries(Dictionary dictionary, List<String> values) {
+
+        Dictionary.Entry[] entries = new Dictionary.Entry[values.size()];
+        for (int code = 0; code < entries.length; code++) {
+            entries[code] = dictionary.lookup(values.get(code));
+        }
+
+        return entries;
+    }
+}
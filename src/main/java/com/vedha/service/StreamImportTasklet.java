@@ -0,0 +1,107 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Imports the lines of an IngestionStream in micro batches, every call is one transaction of the step.
+// A micro batch is committed after batchSize lines or maxLatency after its first line, whichever comes first,
+// so a row is visible at most maxLatency after it reached the server, also when the client sends slowly.
+// Not a chunk step, a chunk only ends after an item was read and a stream can pause at any time.
+// Idle calls end after maxLatency without writing, so a stop request is noticed.
+// The step runs with a ResourcelessTransactionManager, lines are waited for without a transaction and only the write
+// of a micro batch takes a connection, in its own transaction. An idle stream holds no connection of the pool
+public class StreamImportTasklet implements Tasklet {
+
+    private final IngestionStream stream;
+
+    private final LineMapper<OrganizationEntity> lineMapper;
+
+    private final ItemWriter<OrganizationEntity> writer;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final int batchSize;
+
+    private final Duration maxLatency;
+
+    private int lineNumber;
+
+    public StreamImportTasklet(IngestionStream stream, LineMapper<OrganizationEntity> lineMapper, ItemWriter<OrganizationEntity> writer,
+                               PlatformTransactionManager transactionManager, int batchSize, Duration maxLatency) {
+        this.stream = stream;
+        this.lineMapper = lineMapper;
+        this.writer = writer;
+        this.transactionManager = transactionManager;
+        this.batchSize = batchSize;
+        this.maxLatency = maxLatency;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+
+        String line = stream.poll(maxLatency);
+        if (line == null) {
+            stream.checkNotAborted();
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        long deadline = System.nanoTime() + maxLatency.toNanos();
+        List<OrganizationEntity> organizations = new ArrayList<>(Math.min(batchSize, 1024));
+        boolean end = false;
+        int read = 0;
+
+        while (true) {
+
+            if (IngestionStream.isEnd(line)) {
+                end = true;
+                break;
+            }
+
+            contribution.incrementReadCount();
+            OrganizationEntity organization = lineMapper.mapLine(line, ++lineNumber);
+            if (organization == OrganizationLineMapper.FILTERED) {
+                contribution.incrementFilterCount(1);
+            } else {
+                organizations.add(organization);
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (++read >= batchSize || remaining <= 0 || (line = stream.poll(Duration.ofNanos(remaining))) == null) {
+                break;
+            }
+        }
+
+        if (!organizations.isEmpty()) {
+            Chunk<OrganizationEntity> chunk = new Chunk<>(organizations);
+            write(chunk);
+            contribution.incrementWriteCount(chunk.size()); // without the rows the writer dropped
+        }
+
+        return end ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    private void write(Chunk<OrganizationEntity> chunk) throws Exception {
+
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        try {
+            writer.write(chunk);
+        } catch (Exception | Error e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        transactionManager.commit(transaction);
+    }
+}
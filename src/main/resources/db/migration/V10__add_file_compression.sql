@@ -0,0 +1,6 @@
+-- files are stored gzip compressed, file_size stays the size of the csv content
+ALTER TABLE files ADD COLUMN compression VARCHAR(16) DEFAULT 'NONE' NOT NULL;
+
+ALTER TABLE files ADD COLUMN compressed_size BIGINT;
+
+UPDATE files SET compressed_size = file_size;
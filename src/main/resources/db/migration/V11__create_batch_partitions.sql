@@ -0,0 +1,18 @@
+-- partitions of a job queued for the workers of all instances (batch.partitioning.mode=database)
+CREATE TABLE batch_partitions
+(
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    job_execution_id  BIGINT       NOT NULL,
+    step_name         VARCHAR(100) NOT NULL, -- worker step bean
+    step_execution_id BIGINT       NOT NULL, -- current attempt
+    status            VARCHAR(16)  NOT NULL, -- PENDING, CLAIMED, COMPLETED, FAILED
+    worker            VARCHAR(255),
+    attempts          INTEGER      NOT NULL,
+    created_at        TIMESTAMP    NOT NULL,
+    claimed_at        TIMESTAMP,
+    heartbeat_at      TIMESTAMP,
+    CONSTRAINT pk_batch_partitions PRIMARY KEY (id)
+);
+
+CREATE INDEX ix_batch_partitions_status ON batch_partitions (status, id);
+CREATE INDEX ix_batch_partitions_job_execution ON batch_partitions (job_execution_id);
@@ -0,0 +1,15 @@
+-- rows of an import that could not be read or written, see OrganizationRejects
+CREATE TABLE organization_rejects
+(
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    job_execution_id BIGINT        NOT NULL,
+    source           VARCHAR(255),
+    line_number      INTEGER,       -- within the partition of a partitioned import
+    stage            VARCHAR(16)   NOT NULL, -- read, write
+    content          VARCHAR(4000),
+    error            VARCHAR(1000) NOT NULL,
+    created_at       TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_organization_rejects PRIMARY KEY (id)
+);
+
+CREATE INDEX ix_organization_rejects_job_execution ON organization_rejects (job_execution_id);
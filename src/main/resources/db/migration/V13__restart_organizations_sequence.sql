@@ -0,0 +1,4 @@
+-- organizations_seq of V4 started at 1 while the table could already hold identity ids 1..N from before,
+-- the first block handed out (pooled-lo, the value is the lowest id of the block) would collide on the primary key.
+-- a new migration instead of a changed V4, databases that already applied V4 keep a valid checksum and are repaired too
+ALTER SEQUENCE organizations_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM organizations);
@@ -0,0 +1,3 @@
+-- ids are allocated in blocks of 50 (pooled-lo), shared by the JPA writer and the JDBC bulk writer,
+-- the identity of the id column is no longer used
+CREATE SEQUENCE organizations_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,3 @@
+ALTER TABLE organizations ADD COLUMN organization_id VARCHAR(255);
+
+CREATE UNIQUE INDEX ux_organizations_organization_id ON organizations (organization_id);
@@ -0,0 +1,11 @@
+-- sha-256 of the uploaded file, identical uploads are not imported again
+ALTER TABLE files ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX ix_files_content_hash ON files (content_hash);
+
+-- source file of the row and 64 bit hash of its csv fields, a delta import skips the rows whose hash did not change
+ALTER TABLE organizations ADD COLUMN source VARCHAR(255);
+
+ALTER TABLE organizations ADD COLUMN row_hash BIGINT;
+
+CREATE INDEX ix_organizations_source ON organizations (source);
@@ -0,0 +1,44 @@
+-- country, industry and founded have a few hundred distinct values, rows keep an integer id instead of the string
+CREATE TABLE countries
+(
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name VARCHAR(255)                             NOT NULL,
+    CONSTRAINT pk_countries PRIMARY KEY (id),
+    CONSTRAINT uc_countries_name UNIQUE (name)
+);
+
+CREATE TABLE industries
+(
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name VARCHAR(255)                             NOT NULL,
+    CONSTRAINT pk_industries PRIMARY KEY (id),
+    CONSTRAINT uc_industries_name UNIQUE (name)
+);
+
+CREATE TABLE founded_years
+(
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name VARCHAR(255)                             NOT NULL,
+    CONSTRAINT pk_founded_years PRIMARY KEY (id),
+    CONSTRAINT uc_founded_years_name UNIQUE (name)
+);
+
+INSERT INTO countries (name) SELECT DISTINCT country FROM organizations WHERE country IS NOT NULL;
+INSERT INTO industries (name) SELECT DISTINCT industry FROM organizations WHERE industry IS NOT NULL;
+INSERT INTO founded_years (name) SELECT DISTINCT founded FROM organizations WHERE founded IS NOT NULL;
+
+ALTER TABLE organizations ADD COLUMN country_id INTEGER;
+ALTER TABLE organizations ADD COLUMN industry_id INTEGER;
+ALTER TABLE organizations ADD COLUMN founded_id INTEGER;
+
+UPDATE organizations o SET country_id = (SELECT c.id FROM countries c WHERE c.name = o.country);
+UPDATE organizations o SET industry_id = (SELECT i.id FROM industries i WHERE i.name = o.industry);
+UPDATE organizations o SET founded_id = (SELECT f.id FROM founded_years f WHERE f.name = o.founded);
+
+ALTER TABLE organizations DROP COLUMN country;
+ALTER TABLE organizations DROP COLUMN industry;
+ALTER TABLE organizations DROP COLUMN founded;
+
+ALTER TABLE organizations ADD CONSTRAINT fk_organizations_country FOREIGN KEY (country_id) REFERENCES countries (id);
+ALTER TABLE organizations ADD CONSTRAINT fk_organizations_industry FOREIGN KEY (industry_id) REFERENCES industries (id);
+ALTER TABLE organizations ADD CONSTRAINT fk_organizations_founded FOREIGN KEY (founded_id) REFERENCES founded_years (id);
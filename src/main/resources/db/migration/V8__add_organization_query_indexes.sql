@@ -0,0 +1,4 @@
+-- filters of the organization query api, the employee range is served from the same index as the equality column
+CREATE INDEX ix_organizations_country_employees ON organizations (country_id, employees);
+CREATE INDEX ix_organizations_industry_employees ON organizations (industry_id, employees);
+CREATE INDEX ix_organizations_employees ON organizations (employees);
@@ -0,0 +1,14 @@
+-- aggregates of the last import of every source, written at the end of the import instead of scanning organizations
+CREATE TABLE organization_summaries
+(
+    source           VARCHAR(255) NOT NULL,
+    dimension        VARCHAR(32)  NOT NULL, -- country, industry, founded_decade
+    dimension_key    INTEGER      NOT NULL, -- dimension id, first year of the decade, -1 unknown
+    organizations    BIGINT       NOT NULL,
+    employees        BIGINT       NOT NULL,
+    job_execution_id BIGINT       NOT NULL,
+    updated_at       TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_organization_summaries PRIMARY KEY (source, dimension, dimension_key)
+);
+
+CREATE INDEX ix_organization_summaries_dimension ON organization_summaries (dimension, dimension_key);
@@ -0,0 +1,42 @@
+package com.vedha.benchmark;
+
+import com.vedha.SpringBootBatchApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Starts the application without the web server and the startup import against its own in-memory H2 database
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+
+        // devtools would restart a main method (ScaleSuite) in a new class loader, without its arguments,
+        // only read as a system property
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        Map<String, String> arguments = new LinkedHashMap<>();
+        for (String property : new String[]{
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.use_sql_comments=false",
+                "batch.startup-import.enabled=false",
+                "logging.level.root=warn"
+        }) {
+            arguments.put(property.substring(0, property.indexOf('=')), property);
+        }
+        for (String property : properties) {
+            arguments.put(property.substring(0, property.indexOf('=')), property); // replaces a default, a repeated argument would be joined
+        }
+
+        // command line arguments, default properties would lose against application-dev.yaml
+        return new SpringApplicationBuilder(SpringBootBatchApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.values().stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,70 @@
+package com.vedha.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Input files for the benchmarks, larger files are built by repeating the rows of organizations.csv
+final class BenchmarkFiles {
+
+    static final String ORGANIZATIONS = "/files/organizations.csv";
+
+    private static final Path DIRECTORY = Path.of("target", "benchmark-files");
+
+    private BenchmarkFiles() {
+    }
+
+    // job parameter fileClassPath for the given number of rows
+    static String location(int rows) throws IOException {
+        return rows == 10000 ? ORGANIZATIONS : "file:" + organizations(rows).toAbsolutePath();
+    }
+
+    static List<String> rows() throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(ORGANIZATIONS).getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    static Path organizations(int rows) throws IOException {
+
+        Path file = DIRECTORY.resolve("organizations-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+
+        List<String> lines = rows();
+        Files.createDirectories(DIRECTORY);
+
+        Path temp = Files.createTempFile(DIRECTORY, "organizations", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+
+            writer.write(lines.get(0));
+            writer.newLine();
+
+            for (int i = 0; i < rows; i++) {
+
+                // keep the row, renumber the index and make the organizationId unique for every repetition
+                String line = lines.get(1 + i % (lines.size() - 1));
+                int organizationIdStart = line.indexOf(',') + 1;
+                int organizationIdEnd = line.indexOf(',', organizationIdStart);
+
+                writer.write(String.valueOf(i + 1));
+                writer.write(',');
+                writer.write(line, organizationIdStart, organizationIdEnd - organizationIdStart);
+                writer.write(String.valueOf(i / (lines.size() - 1)));
+                writer.write(line, organizationIdEnd, line.length() - organizationIdEnd);
+                writer.newLine();
+            }
+        }
+
+        return Files.move(temp, file);
+    }
+}
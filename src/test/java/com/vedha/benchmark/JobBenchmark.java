@@ -0,0 +1,86 @@
+package com.vedha.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// end to end csvImporterJob against in-memory H2, rows/sec = rows / score
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JobBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"100", "1000", "5000"})
+    public int chunkSize;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    // chunkSize is the initial size when adaptive
+    @Param({"false", "true"})
+    public boolean adaptiveChunk;
+
+    @Param({"jdbc", "jpa"})
+    public String writer;
+
+    private ConfigurableApplicationContext context;
+
+    private JobLauncher jobLauncher;
+
+    private Job csvImporterJob;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private String location;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        location = BenchmarkFiles.location(rows);
+        context = BenchmarkContext.start("batch.chunk-size.csv-importer=" + chunkSize, "batch.adaptive-chunk.enabled=" + adaptiveChunk);
+        jobLauncher = context.getBean(JobLauncher.class);
+        csvImporterJob = context.getBean("csvImporterJob", Job.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE organizations");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public JobExecution runJob() throws Exception {
+
+        JobExecution jobExecution = jobLauncher.run(csvImporterJob, new JobParametersBuilder()
+                .addString("fileClassPath", location)
+                .addLong("minEmployees", 0L)
+                .addLong("gridSize", (long) threads)
+                .addString("writer", writer)
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Job did not complete: " + jobExecution.getExitStatus());
+        }
+
+        return jobExecution;
+    }
+}
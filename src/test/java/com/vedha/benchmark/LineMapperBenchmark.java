@@ -0,0 +1,75 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.OrganizationLineMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// lines/sec of the previous DelimitedLineTokenizer + FieldSetMapper path against OrganizationLineMapper,
+// run with -prof gc to compare the allocation per line
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineMapperBenchmark {
+
+    @Param({"fieldSet", "organizationLineMapper"})
+    public String mapper;
+
+    private List<String> lines;
+
+    private LineMapper<OrganizationEntity> lineMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource("/files/organizations.csv").getInputStream(), StandardCharsets.UTF_8))) {
+            lines = reader.lines().skip(1).toList();
+        }
+
+        lineMapper = "fieldSet".equals(mapper) ? fieldSetLineMapper() : new OrganizationLineMapper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public void mapLines(Blackhole blackhole) throws Exception {
+
+        for (int i = 0; i < 10000; i++) {
+            blackhole.consume(lineMapper.mapLine(lines.get(i % lines.size()), i));
+        }
+    }
+
+    // the mapping used by the readers before OrganizationLineMapper
+    static LineMapper<OrganizationEntity> fieldSetLineMapper() {
+
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",");
+        tokenizer.setNames("index", "organizationId", "name", "website", "country", "description", "founded", "industry", "employees");
+
+        DefaultLineMapper<OrganizationEntity> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(fieldSet -> OrganizationEntity.builder()
+                .name(fieldSet.readString("name"))
+                .website(fieldSet.readString("website"))
+                .country(fieldSet.readString("country"))
+                .description(fieldSet.readString("description"))
+                .founded(fieldSet.readString("founded"))
+                .industry(fieldSet.readString("industry"))
+                .employees(fieldSet.readLong("employees"))
+                .build());
+
+        return lineMapper;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vedha.benchmark;
+
+import com.vedha.config.JobRepositories;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// job metadata overhead of each batch.metadata mode, restCsvImporterJob with small chunks so the repository writes dominate
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetadataBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"10", "100", "1000"})
+    public int chunkSize;
+
+    @Param({"full", "coalesced", "in-memory"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private JobRepositories jobRepositories;
+
+    private Job restCsvImporterJob;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private String location;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        location = BenchmarkFiles.location(rows);
+        context = BenchmarkContext.start("batch.chunk-size.rest-csv-importer=" + chunkSize,
+                "batch.metadata.mode=" + ("coalesced".equals(mode) ? "coalesced" : "full"),
+                "batch.metadata.in-memory-jobs=" + ("in-memory".equals(mode) ? "restCsvImporterJob" : ""));
+        jobRepositories = context.getBean(JobRepositories.class);
+        restCsvImporterJob = context.getBean("restCsvImporterJob", Job.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE organizations");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public JobExecution runJob() throws Exception {
+
+        JobExecution jobExecution = jobRepositories.launcherFor(restCsvImporterJob.getName()).run(restCsvImporterJob, new JobParametersBuilder()
+                .addString("fileClassPath", location)
+                .addLong("minEmployees", 0L)
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Job did not complete: " + jobExecution.getExitStatus());
+        }
+
+        return jobExecution;
+    }
+}
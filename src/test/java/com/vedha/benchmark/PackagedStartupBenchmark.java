@@ -0,0 +1,97 @@
+package com.vedha.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// time from launching the packaged application in a new JVM until it is ready, "Started SpringBootBatchApplication in" is logged
+// once the context is refreshed and the web server listens, the JVM start is part of the time as it is for a worker container.
+//  jar: the extracted jar of mvn -Pfast-startup package, without AOT and class data sharing
+//  aot-cds: the same jar with -Dspring.aot.enabled=true and the archive of the training run
+// Both with the profiles of the AOT build (dev,fast-startup), the startup import is disabled by fast-startup.
+//  mvn -Pfast-startup,benchmark verify -DskipTests -Dbenchmark.include=PackagedStartupBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1) // the jar and the archive in the page cache
+@Measurement(iterations = 10)
+@Fork(1)
+public class PackagedStartupBenchmark {
+
+    private static final Path APPLICATION = Path.of("target", "application");
+
+    private static final String STARTED = "Started SpringBootBatchApplication in";
+
+    @Param({"jar", "aot-cds"})
+    public String mode;
+
+    private List<String> command;
+
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        Path jar = jar();
+        command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java")); // the JVM of the archive
+        if ("aot-cds".equals(mode)) {
+            command.add("-XX:SharedArchiveFile=" + APPLICATION.resolve("application.jsa"));
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-Dspring.profiles.active=dev,fast-startup", "-jar", jar.toString(),
+                "--server.port=0",
+                "--logging.level.root=warn",
+                "--logging.level.com.vedha.SpringBootBatchApplication=info"));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    @Benchmark
+    public long start() throws IOException, InterruptedException {
+
+        process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.contains(STARTED)) {
+                    return process.pid();
+                }
+            }
+        }
+
+        throw new IllegalStateException("Application exited with " + process.waitFor() + " before it was ready: " + command);
+    }
+
+    private static Path jar() throws IOException {
+
+        if (Files.notExists(APPLICATION.resolve("application.jsa"))) {
+            throw new IllegalStateException(APPLICATION + " has no application.jsa, build it with mvn -Pfast-startup package");
+        }
+
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(APPLICATION, "*.jar")) {
+            for (Path jar : jars) {
+                return jar;
+            }
+        }
+
+        throw new IllegalStateException("No jar in " + APPLICATION);
+    }
+}
@@ -0,0 +1,54 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.CustomItemProcessor;
+import com.vedha.service.OrganizationLineMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// items/sec of CustomItemProcessor and the lambda of the processor bean of BatchConfig (CustomItemProcessor.minEmployees),
+// minEmployees controls how many of the organizations.csv rows are filtered
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessorBenchmark {
+
+    @Param({"customItemProcessor", "processor"})
+    public String processor;
+
+    @Param({"0", "5000"})
+    public long minEmployees;
+
+    private List<OrganizationEntity> organizations;
+
+    private ItemProcessor<OrganizationEntity, OrganizationEntity> itemProcessor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        List<String> rows = BenchmarkFiles.rows();
+        OrganizationLineMapper lineMapper = new OrganizationLineMapper();
+        organizations = IntStream.range(1, rows.size()).mapToObj(i -> lineMapper.mapLine(rows.get(i), i)).toList();
+
+        itemProcessor = "processor".equals(processor)
+                ? CustomItemProcessor.minEmployees(minEmployees)
+                : new CustomItemProcessor(minEmployees);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public void process(Blackhole blackhole) throws Exception {
+
+        for (int i = 0; i < 10000; i++) {
+            blackhole.consume(itemProcessor.process(organizations.get(i % organizations.size())));
+        }
+    }
+}
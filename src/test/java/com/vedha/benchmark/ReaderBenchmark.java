@@ -0,0 +1,61 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.OrganizationLineMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.concurrent.TimeUnit;
+
+// rows/sec of the csv reader configured like the reader bean of BatchConfig, reading and mapping a whole file
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"fieldSet", "organizationLineMapper"})
+    public String mapper;
+
+    private String location;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        location = BenchmarkFiles.location(rows);
+    }
+
+    @Benchmark
+    public long readFile(Blackhole blackhole) throws Exception {
+
+        FlatFileItemReader<OrganizationEntity> reader = new FlatFileItemReaderBuilder<OrganizationEntity>()
+                .name("organizationItemReader")
+                .resource(new DefaultResourceLoader().getResource(location))
+                .linesToSkip(1)
+                .lineMapper("fieldSet".equals(mapper) ? LineMapperBenchmark.fieldSetLineMapper() : new OrganizationLineMapper())
+                .saveState(false)
+                .build();
+
+        long count = 0;
+        reader.open(new ExecutionContext());
+        try {
+            OrganizationEntity organization;
+            while ((organization = reader.read()) != null) {
+                blackhole.consume(organization);
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+
+        return count;
+    }
+}
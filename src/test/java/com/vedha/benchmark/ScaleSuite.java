@@ -0,0 +1,218 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.FileEntity;
+import com.vedha.service.FileStorageService;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// End to end csvImporterJob and restCsvUploadImporterJob on generated files (SyntheticOrganizations), one run per job and size,
+// each against a fresh file based H2 database, so the database size is the one of that run.
+// Reports rows/sec, peak heap (sampled), GC time and database size, appended to target/scale-suite/results.csv.
+// seconds and rowsPerSecond are those of the job alone, from jobLauncher.run until it returns,
+// the start of the application context and the upload to the BLOB store are reported separately
+//  mvn -Pscale-suite verify -DskipTests -Dscale.args="rows=1000000,10000000 jobs=csvImporterJob,restCsvUploadImporterJob"
+//  further arguments: seed=42 duplicateRate=0.05 countries=250 industries=200 malformedRate=0
+public final class ScaleSuite {
+
+    private static final Path DIRECTORY = Path.of("target", "scale-suite");
+
+    private static final String RESULTS_HEADER = "job,rows,file,seconds,rowsPerSecond,startupSeconds,storeSeconds,peakHeapMb,gcMillis,gcCount,databaseMb,status";
+
+    private ScaleSuite() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> arguments = Arrays.stream(args)
+                .map(argument -> argument.split("=", 2))
+                .collect(Collectors.toMap(argument -> argument[0], argument -> argument.length > 1 ? argument[1] : ""));
+
+        List<Long> sizes = Arrays.stream(arguments.getOrDefault("rows", "1000000").split(",")).map(Long::parseLong).toList();
+        List<String> jobs = List.of(arguments.getOrDefault("jobs", "csvImporterJob,restCsvUploadImporterJob").split(","));
+
+        Files.createDirectories(DIRECTORY);
+        Path results = DIRECTORY.resolve("results.csv");
+        if (Files.notExists(results)) {
+            Files.writeString(results, RESULTS_HEADER + "\n");
+        }
+
+        System.out.println(RESULTS_HEADER);
+        for (long rows : sizes) {
+
+            SyntheticOrganizations.Spec defaults = SyntheticOrganizations.Spec.of(rows);
+            SyntheticOrganizations.Spec spec = new SyntheticOrganizations.Spec(rows,
+                    Long.parseLong(arguments.getOrDefault("seed", String.valueOf(defaults.seed()))),
+                    Double.parseDouble(arguments.getOrDefault("duplicateRate", String.valueOf(defaults.duplicateRate()))),
+                    Integer.parseInt(arguments.getOrDefault("countries", String.valueOf(defaults.countries()))),
+                    Integer.parseInt(arguments.getOrDefault("industries", String.valueOf(defaults.industries()))),
+                    Double.parseDouble(arguments.getOrDefault("malformedRate", String.valueOf(defaults.malformedRate()))));
+            Path file = SyntheticOrganizations.generate(spec);
+
+            for (String job : jobs) {
+
+                String result = run(job, rows, file);
+                System.out.println(result);
+                Files.writeString(results, result + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            }
+        }
+    }
+
+    private static String run(String jobName, long rows, Path file) throws Exception {
+
+        Path database = DIRECTORY.resolve(jobName + "-" + rows);
+        Files.deleteIfExists(Path.of(database + ".mv.db"));
+        Files.deleteIfExists(Path.of(database + ".trace.db"));
+
+        System.gc();
+        HeapSampler heapSampler = new HeapSampler();
+        long gcMillis = -gcMillis();
+        long gcCount = -gcCount();
+        long storeNanos = 0;
+        long jobNanos;
+        long start = System.nanoTime();
+
+        ConfigurableApplicationContext context = BenchmarkContext.start("spring.datasource.url=jdbc:h2:file:" + database.toAbsolutePath());
+        long startupNanos = System.nanoTime() - start;
+        BatchStatus status;
+        try {
+
+            long storeStart = System.nanoTime();
+            JobLauncher jobLauncher = context.getBean(JobLauncher.class);
+            JobParametersBuilder parameters = new JobParametersBuilder().addLong("run.id", System.nanoTime());
+
+            if ("restCsvUploadImporterJob".equals(jobName)) {
+
+                // the BLOB path, stored like an upload and read back from the database by the job
+                FileStorageService fileStorageService = context.getBean(FileStorageService.class);
+                MultipartFile multipartFile = new PathMultipartFile(file);
+                FileEntity fileEntity = fileStorageService.store(multipartFile, fileStorageService.inspect(multipartFile));
+                storeNanos = System.nanoTime() - storeStart;
+
+                parameters.addLong("fileId", fileEntity.getId()).addString("fileName", fileEntity.getFileName());
+            } else {
+                parameters.addString("fileClassPath", "file:" + file.toAbsolutePath()).addLong("minEmployees", 0L);
+            }
+
+            Job job = context.getBean(jobName, Job.class);
+            long jobStart = System.nanoTime();
+            JobExecution jobExecution = jobLauncher.run(job, parameters.toJobParameters());
+            jobNanos = System.nanoTime() - jobStart;
+            status = jobExecution.getStatus();
+
+            context.getBean(JdbcTemplate.class).execute("CHECKPOINT SYNC");
+        } finally {
+            context.close();
+        }
+
+        long peakHeap = heapSampler.stop();
+        gcMillis += gcMillis();
+        gcCount += gcCount();
+        long databaseSize = Files.size(Path.of(database + ".mv.db"));
+
+        return String.format(Locale.ROOT, "%s,%d,%s,%.1f,%.0f,%.1f,%.1f,%d,%d,%d,%d,%s", jobName, rows, file.getFileName(),
+                jobNanos / 1e9, rows / (jobNanos / 1e9), startupNanos / 1e9, storeNanos / 1e9, peakHeap >> 20, gcMillis, gcCount, databaseSize >> 20, status);
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    // used heap sampled every 20ms, the pool peaks of the memory beans add up peaks of different moments
+    private static final class HeapSampler {
+
+        private final AtomicLong peak = new AtomicLong();
+
+        private final Thread thread = Thread.ofPlatform().daemon().name("heap-sampler").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long stop() throws InterruptedException {
+
+            thread.interrupt();
+            thread.join();
+
+            return peak.get();
+        }
+    }
+
+    // a generated file handed to FileStorageService like a spooled multipart upload
+    private record PathMultipartFile(Path path) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return path.getFileName().toString();
+        }
+
+        @Override
+        public String getContentType() {
+            return "text/csv";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.vedha.benchmark;
+
+import com.vedha.SpringBootBatchApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// time until the application is ready to accept a job (web server listening, ApplicationReadyEvent published),
+// every fork is one cold start in a fresh JVM, the JVM start itself is not included.
+// The packaged jar with AOT and class data sharing is measured by PackagedStartupBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"dev", "dev,fast-startup"})
+    public String profiles;
+
+    // the startup import is submitted right away (dev) or not at all, startup only measures until the job is queued
+    @Param({"false", "true"})
+    public boolean startupImport;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public JobLauncher start() {
+
+        context = new SpringApplicationBuilder(SpringBootBatchApplication.class)
+                .profiles(profiles.split(","))
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+                        "batch.startup-import.enabled=" + startupImport,
+                        "batch.startup-import.delay=0s",
+                        "logging.level.root=warn"
+                )
+                .run();
+
+        return context.getBean(JobLauncher.class);
+    }
+}
@@ -0,0 +1,234 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.OrganizationLineMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+// Deterministic organization csv files in the schema of organizations.csv, the same spec always gives the same bytes.
+//  duplicateRate: share of rows repeating an earlier organization, same organizationId and fields with a new index
+//  countries, industries: distinct values, the values of organizations.csv first, then Country 251, Country 252 ...
+//  malformedRate: share of rows that can not be parsed, wrong column count, non numeric employees or an unbalanced quote
+// Every field of an organization is derived from the seed and its number, nothing is kept in memory, so 100M rows need no heap.
+//  java -cp <test classpath> com.vedha.benchmark.SyntheticOrganizations <rows> [seed] [duplicateRate] [countries] [industries] [malformedRate] [directory]
+final class SyntheticOrganizations {
+
+    static final Path DIRECTORY = Path.of("target", "benchmark-files");
+
+    private static final String HEADER = "Index,Organization Id,Name,Website,Country,Description,Founded,Industry,Number of employees";
+
+    private static final long ID_MASK = (1L << 60) - 1; // 15 hex digits
+
+    private final Spec spec;
+
+    private final List<String> countries;
+
+    private final List<String> industries;
+
+    private final List<String> names;
+
+    private final List<String> words;
+
+    record Spec(long rows, long seed, double duplicateRate, int countries, int industries, double malformedRate) {
+
+        Spec {
+            if (rows < 0 || countries < 1 || industries < 1) {
+                throw new IllegalArgumentException("rows must not be negative, countries and industries must be positive");
+            }
+            if (duplicateRate < 0 || duplicateRate >= 1 || malformedRate < 0 || malformedRate >= 1) {
+                throw new IllegalArgumentException("duplicateRate and malformedRate must be in [0, 1)");
+            }
+        }
+
+        // cardinality of organizations.csv, 5% duplicates, no malformed rows
+        static Spec of(long rows) {
+            return new Spec(rows, 42, 0.05, 250, 200, 0);
+        }
+
+        Spec withMalformedRate(double malformedRate) {
+            return new Spec(rows, seed, duplicateRate, countries, industries, malformedRate);
+        }
+
+        String fileName() {
+            return String.format(Locale.ROOT, "organizations-%d-s%d-d%s-c%d-i%d-m%s.csv", rows, seed, duplicateRate, countries, industries, malformedRate);
+        }
+    }
+
+    private SyntheticOrganizations(Spec spec) throws IOException {
+
+        this.spec = spec;
+
+        List<OrganizationEntity> organizations = new ArrayList<>();
+        OrganizationLineMapper lineMapper = new OrganizationLineMapper();
+        List<String> lines = BenchmarkFiles.rows();
+        for (int i = 1; i < lines.size(); i++) {
+            organizations.add(lineMapper.mapLine(lines.get(i), i + 1));
+        }
+
+        countries = values(organizations, OrganizationEntity::getCountry, spec.countries(), "Country");
+        industries = values(organizations, OrganizationEntity::getIndustry, spec.industries(), "Industry");
+        names = values(organizations, organization -> organization.getName().split("[ ,-]")[0], Integer.MAX_VALUE, null);
+        words = values(organizations, OrganizationEntity::getDescription, Integer.MAX_VALUE, null).stream()
+                .flatMap(description -> List.of(description.split(" ")).stream())
+                .distinct()
+                .toList();
+    }
+
+    // the generated file, written once and reused by later runs
+    static Path generate(Spec spec) throws IOException {
+        return generate(spec, DIRECTORY);
+    }
+
+    static Path generate(Spec spec, Path directory) throws IOException {
+
+        Path file = directory.resolve(spec.fileName());
+        if (Files.exists(file)) {
+            return file;
+        }
+
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "organizations", ".csv");
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8), 1 << 20)) {
+            new SyntheticOrganizations(spec).write(writer);
+        }
+
+        return Files.move(temp, file);
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        Spec defaults = Spec.of(Long.parseLong(args[0]));
+        Spec spec = new Spec(defaults.rows(),
+                args.length > 1 ? Long.parseLong(args[1]) : defaults.seed(),
+                args.length > 2 ? Double.parseDouble(args[2]) : defaults.duplicateRate(),
+                args.length > 3 ? Integer.parseInt(args[3]) : defaults.countries(),
+                args.length > 4 ? Integer.parseInt(args[4]) : defaults.industries(),
+                args.length > 5 ? Double.parseDouble(args[5]) : defaults.malformedRate());
+
+        System.out.println(generate(spec, args.length > 6 ? Path.of(args[6]) : DIRECTORY).toAbsolutePath());
+    }
+
+    private void write(Writer writer) throws IOException {
+
+        writer.write(HEADER);
+        writer.write('\n');
+
+        StringBuilder line = new StringBuilder(256);
+        long organizations = 0;
+
+        for (long index = 1; index <= spec.rows(); index++) {
+
+            SplittableRandom random = new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + index);
+
+            long organization = organizations > 0 && random.nextDouble() < spec.duplicateRate()
+                    ? random.nextLong(organizations) // repeats an earlier one
+                    : organizations++;
+
+            line.setLength(0);
+            organization(line, index, organization);
+
+            if (random.nextDouble() < spec.malformedRate()) {
+                malform(line, random.nextInt(3));
+            }
+
+            line.append('\n');
+            writer.append(line);
+        }
+    }
+
+    // all fields except the index come from the organization number
+    private void organization(StringBuilder line, long index, long organization) {
+
+        SplittableRandom random = new SplittableRandom(spec.seed() ^ (organization * 0xBF58476D1CE4E5B9L));
+        String name = names.get(random.nextInt(names.size()));
+
+        line.append(index).append(',');
+        organizationId(line, organization, random);
+        line.append(',');
+        field(line, name + " " + pick(random, "LLC", "Ltd", "PLC", "Inc", "Group", "and Sons"));
+        line.append(",http://").append(name.toLowerCase(Locale.ROOT)).append('-').append(organization).append(".com/,");
+        field(line, countries.get(random.nextInt(countries.size())));
+        line.append(',');
+        field(line, words.get(random.nextInt(words.size())) + (random.nextInt(20) == 0 ? ", " : " ")
+                + words.get(random.nextInt(words.size())) + " " + words.get(random.nextInt(words.size())));
+        line.append(',').append(1970 + random.nextInt(52)).append(',');
+        field(line, industries.get(random.nextInt(industries.size())));
+        line.append(',').append(random.nextInt(1, 10_000));
+    }
+
+    // unique for every organization number, a bijection on 60 bits printed as mixed case hex like the ids of organizations.csv
+    private void organizationId(StringBuilder line, long organization, SplittableRandom random) {
+
+        long id = (organization + spec.seed()) & ID_MASK;
+        id = (id * 0x9E3779B97F4A7C15L) & ID_MASK;
+        id ^= id >>> 29;
+        id = (id * 0xBF58476D1CE4E5B9L) & ID_MASK;
+        id ^= id >>> 32;
+
+        for (int shift = 56; shift >= 0; shift -= 4) {
+            char digit = Character.forDigit((int) (id >>> shift) & 0xF, 16);
+            line.append(random.nextBoolean() ? Character.toUpperCase(digit) : digit);
+        }
+    }
+
+    private static void malform(StringBuilder line, int kind) {
+
+        switch (kind) {
+            case 0 -> line.setLength(line.lastIndexOf(",")); // a column short
+            case 1 -> line.replace(line.lastIndexOf(",") + 1, line.length(), "n/a"); // employees not a number
+            default -> line.insert(line.indexOf(",", line.indexOf(",") + 1) + 1, '"'); // unbalanced quote in the name
+        }
+    }
+
+    private static void field(StringBuilder line, String value) {
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String pick(SplittableRandom random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // distinct values of organizations.csv in sorted order, cut or extended with numbered values to the cardinality,
+    // without a prefix only cut
+    private static List<String> values(List<OrganizationEntity> organizations, Function<OrganizationEntity, String> field, int cardinality, String prefix) {
+
+        TreeSet<String> distinct = new TreeSet<>();
+        for (OrganizationEntity organization : organizations) {
+            String value = field.apply(organization);
+            if (value != null && !value.isBlank()) {
+                distinct.add(value);
+            }
+        }
+
+        List<String> values = new ArrayList<>(distinct);
+        if (values.size() >= cardinality) {
+            return values.subList(0, cardinality);
+        }
+        if (prefix == null) {
+            return values;
+        }
+
+        for (int i = values.size() + 1; values.size() < cardinality; i++) {
+            values.add(prefix + " " + i);
+        }
+
+        return values;
+    }
+}
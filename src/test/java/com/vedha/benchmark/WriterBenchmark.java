@@ -0,0 +1,99 @@
+package com.vedha.benchmark;
+
+import com.vedha.entity.OrganizationEntity;
+import com.vedha.service.OrganizationDictionaries;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// rows/sec of the jpa writer against the jdbc bulk writer, one chunk per transaction like in the steps
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WriterBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"jpaWriter", "jdbcWriter"})
+    public String writer;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemWriter<OrganizationEntity> itemWriter;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OrganizationDictionaries dictionaries;
+
+    private final AtomicLong organizationIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+
+        context = BenchmarkContext.start();
+        itemWriter = context.getBean(writer, ItemWriter.class);
+        transactionTemplate = new TransactionTemplate(context.getBean("transactionManager", PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        dictionaries = context.getBean(OrganizationDictionaries.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE organizations");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void writeChunk() {
+
+        Chunk<OrganizationEntity> chunk = new Chunk<>(organizations(organizationIds.getAndAdd(CHUNK_SIZE), CHUNK_SIZE));
+        chunk.forEach(dictionaries::encode); // done by the writer step bean in a job
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                itemWriter.write(chunk);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // new organizations, organizationId is unique from firstId on
+    static List<OrganizationEntity> organizations(long firstId, int size) {
+
+        List<OrganizationEntity> organizations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            organizations.add(OrganizationEntity.builder()
+                    .organizationId(Long.toHexString(firstId + i))
+                    .name("Organization " + i)
+                    .website("http://organization-" + i + ".com/")
+                    .country("Country " + (i % 200))
+                    .description("Synergized global system engine")
+                    .founded(String.valueOf(1970 + i % 50))
+                    .industry("Industry " + (i % 150))
+                    .employees((long) i % 10000)
+                    .build());
+        }
+
+        return organizations;
+    }
+}
@@ -0,0 +1,73 @@
+package com.vedha.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CoalescingStepExecutionInterceptorTest {
+
+    @Test
+    void runningStepWritesOncePerIntervalAndAlwaysWhenItEnds() {
+
+        JobRepository delegate = mock(JobRepository.class);
+        JobRepository jobRepository = proxy(delegate, Set.of());
+        StepExecution stepExecution = stepExecution("csvImporterStep:partition0");
+
+        for (int i = 0; i < 10; i++) {
+            jobRepository.updateExecutionContext(stepExecution);
+            jobRepository.update(stepExecution);
+        }
+        verify(delegate, times(1)).update(stepExecution);
+        verify(delegate, times(1)).updateExecutionContext(stepExecution);
+
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        jobRepository.updateExecutionContext(stepExecution);
+        jobRepository.update(stepExecution);
+
+        verify(delegate, times(2)).update(stepExecution);
+        verify(delegate, times(2)).updateExecutionContext(stepExecution);
+    }
+
+    @Test
+    void statelessStepNeverWritesItsExecutionContext() {
+
+        JobRepository delegate = mock(JobRepository.class);
+        JobRepository jobRepository = proxy(delegate, Set.of("csvExportStep"));
+        StepExecution stepExecution = stepExecution("csvExportStep:partition3");
+
+        jobRepository.updateExecutionContext(stepExecution);
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        jobRepository.updateExecutionContext(stepExecution);
+        jobRepository.update(stepExecution);
+
+        verify(delegate, never()).updateExecutionContext(any(StepExecution.class));
+        verify(delegate).update(stepExecution);
+        assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    private static JobRepository proxy(JobRepository delegate, Set<String> statelessSteps) {
+
+        ProxyFactory proxyFactory = new ProxyFactory(delegate);
+        proxyFactory.addInterface(JobRepository.class);
+        proxyFactory.addAdvice(new CoalescingStepExecutionInterceptor(Duration.ofMinutes(1), statelessSteps));
+
+        return (JobRepository) proxyFactory.getProxy();
+    }
+
+    private static StepExecution stepExecution(String stepName) {
+
+        StepExecution stepExecution = new StepExecution(stepName, new JobExecution(1L), 2L);
+        stepExecution.setStatus(BatchStatus.STARTED);
+
+        return stepExecution;
+    }
+}
@@ -0,0 +1,37 @@
+package com.vedha.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class JobRepositoriesTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+
+    @Test
+    void partitionedJobsCanNotBeInMemoryWithDatabasePartitioning() {
+
+        assertThatThrownBy(() -> jobRepositories(Set.of("restCsvImporterJob", "directoryImporterJob"), "database"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[directoryImporterJob]");
+    }
+
+    @Test
+    void partitionedJobsCanBeInMemoryWithLocalPartitioning() throws Exception {
+
+        JobRepositories jobRepositories = jobRepositories(Set.of("csvImporterJob"), "local");
+
+        assertThat(jobRepositories.forJob("restCsvImporterJob")).isSameAs(jobRepository);
+    }
+
+    private JobRepositories jobRepositories(Set<String> inMemoryJobs, String partitioningMode) throws Exception {
+        return new JobRepositories(jobRepository, mock(JobLauncher.class), "full", Duration.ofSeconds(5), Set.of(), inMemoryJobs, partitioningMode);
+    }
+}
@@ -0,0 +1,53 @@
+package com.vedha.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BatchMetricsListener listener = new BatchMetricsListener(meterRegistry);
+
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+    private final ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+    @Test
+    void filteredItemsAreTheFilterCountOfTheStepWhoeverFilteredThem() {
+
+        listener.beforeStep(stepExecution);
+
+        stepExecution.setFilterCount(3); // e.g. by the reader in update
+        listener.afterChunk(chunkContext);
+        stepExecution.setFilterCount(5); // e.g. duplicates by the writer
+        listener.afterChunk(chunkContext);
+
+        assertThat(filtered()).isEqualTo(5);
+    }
+
+    @Test
+    void anOlderFilterCountSeenByAnotherThreadIsNotCountedAgain() {
+
+        listener.beforeStep(stepExecution);
+
+        stepExecution.setFilterCount(4);
+        listener.afterChunk(chunkContext);
+        stepExecution.setFilterCount(2);
+        listener.afterChunk(chunkContext);
+        stepExecution.setFilterCount(6);
+        listener.afterStep(stepExecution);
+
+        assertThat(filtered()).isEqualTo(6);
+    }
+
+    private double filtered() {
+        return meterRegistry.get("batch.items.filtered").counter().count();
+    }
+}
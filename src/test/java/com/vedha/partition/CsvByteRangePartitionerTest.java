@@ -0,0 +1,74 @@
+package com.vedha.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvByteRangePartitionerTest {
+
+    private final Resource resource = new ClassPathResource("/files/organizations-100.csv");
+
+    @Test
+    void partitionsCoverEveryRowExactlyOnce() throws Exception {
+
+        Map<String, ExecutionContext> partitions = new CsvByteRangePartitioner(resource, 7).partition(1);
+
+        assertThat(partitions).hasSize(7);
+
+        List<String> lines = new ArrayList<>();
+        for (ExecutionContext context : partitions.values()) {
+
+            Resource range = new ByteRangeResource(resource, context.getLong(CsvByteRangePartitioner.START_BYTE), context.getLong(CsvByteRangePartitioner.END_BYTE));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(range.getInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines().forEach(lines::add);
+            }
+        }
+
+        assertThat(lines).hasSize(100);
+        assertThat(lines.get(0)).startsWith("1,");
+        assertThat(lines.get(99)).startsWith("100,");
+    }
+
+    @Test
+    void aNewlineInAQuotedFieldIsNoPartitionBoundary(@TempDir Path directory) throws Exception {
+
+        StringBuilder csv = new StringBuilder("Index,Name,Description\n");
+        for (int i = 1; i <= 50; i++) {
+            csv.append(i).append(",\"Organization ").append(i).append("\",\"first line\n\"\"second\"\" line\n\"\n");
+        }
+        Path file = Files.writeString(directory.resolve("multiline.csv"), csv);
+        Resource multiline = new FileSystemResource(file);
+
+        Map<String, ExecutionContext> partitions = new CsvByteRangePartitioner(multiline, 7).partition(1);
+
+        assertThat(partitions).hasSize(7);
+        for (ExecutionContext context : partitions.values()) {
+
+            Resource range = new ByteRangeResource(multiline, context.getLong(CsvByteRangePartitioner.START_BYTE), context.getLong(CsvByteRangePartitioner.END_BYTE));
+            String content = new String(range.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+            assertThat(content).matches("(?s)\\d+,\"Organization .*\"\n"); // starts at a record, ends after one
+            assertThat(content.chars().filter(c -> c == '"').count() % 2).isZero();
+        }
+    }
+
+    @Test
+    void gridSizeIsUsedWhenNoPartitionCountIsGiven() {
+
+        assertThat(new CsvByteRangePartitioner(resource, null).partition(3)).hasSize(3);
+    }
+}
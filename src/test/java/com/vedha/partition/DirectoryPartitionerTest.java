@@ -0,0 +1,36 @@
+package com.vedha.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectoryPartitionerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void onePartitionPerFile() throws Exception {
+
+        Files.writeString(directory.resolve("b.csv"), "Index\n");
+        Files.writeString(directory.resolve("a.csv.gz"), "");
+        Files.writeString(directory.resolve("c-" + "x".repeat(200) + ".csv"), "");
+        Files.createDirectory(directory.resolve("nested"));
+
+        Map<String, ExecutionContext> partitions = new DirectoryPartitioner(directory).partition(1);
+
+        assertThat(partitions).hasSize(3);
+        assertThat(partitions.keySet()).allMatch(name -> name.length() <= 70);
+        assertThat(partitions.values()).extracting(context -> context.getString(DirectoryPartitioner.FILE_NAME))
+                .startsWith("a.csv.gz", "b.csv");
+        assertThat(Path.of(URI.create(partitions.get("file1-b.csv").getString(DirectoryPartitioner.FILE_LOCATION))))
+                .isEqualTo(directory.resolve("b.csv"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.vedha.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdRangePartitionerTest {
+
+    @Test
+    void rangesCoverEveryIdExactlyOnce() {
+
+        Map<String, ExecutionContext> partitions = IdRangePartitioner.ranges(1, 100, 7);
+
+        assertThat(partitions).hasSize(7);
+
+        long next = 1;
+        for (ExecutionContext context : partitions.values()) {
+            assertThat(context.getLong(IdRangePartitioner.MIN_ID)).isEqualTo(next);
+            next = context.getLong(IdRangePartitioner.MAX_ID) + 1;
+        }
+        assertThat(next).isEqualTo(101);
+    }
+
+    @Test
+    void fewerIdsThanPartitionsAndEmptyTable() {
+
+        assertThat(IdRangePartitioner.ranges(5, 7, 8)).hasSize(3);
+
+        Map<String, ExecutionContext> empty = IdRangePartitioner.ranges(1, 0, 4);
+        assertThat(empty).hasSize(1);
+        assertThat(empty.get("partition0").getLong(IdRangePartitioner.MIN_ID)).isGreaterThan(empty.get("partition0").getLong(IdRangePartitioner.MAX_ID));
+    }
+}
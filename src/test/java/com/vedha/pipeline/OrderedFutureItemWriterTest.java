@@ -0,0 +1,54 @@
+package com.vedha.pipeline;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderedFutureItemWriterTest {
+
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+    private final List<Integer> written = new ArrayList<>();
+
+    private final OrderedFutureItemWriter<Integer> writer = new OrderedFutureItemWriter<>(chunk -> written.addAll(chunk.getItems()),
+            new PipelineStages(new SimpleMeterRegistry(), Tags.of("step", "test")));
+
+    @BeforeEach
+    void register() {
+        StepSynchronizationManager.register(stepExecution);
+    }
+
+    @AfterEach
+    void close() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void filteredItemsAreRemovedAndCountedInUpdateOnly() throws Exception {
+
+        Chunk<Future<Integer>> chunk = Chunk.of(CompletableFuture.completedFuture(1), CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(3));
+        writer.write(chunk);
+
+        assertThat(written).containsExactly(1, 3);
+        assertThat(chunk.size()).isEqualTo(2);
+        assertThat(stepExecution.getFilterCount()).isZero(); // write runs outside the step lock
+
+        writer.update(new ExecutionContext());
+
+        assertThat(stepExecution.getFilterCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,165 @@
+package com.vedha.pipeline;
+
+import com.vedha.service.FilteringItemStreamReader;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadAheadItemReaderTest {
+
+    private final PipelineStages stages = new PipelineStages(new SimpleMeterRegistry(), Tags.of("step", "test"));
+
+    @Test
+    void itemsArriveInReadOrderThroughAQueueSmallerThanTheInput() throws Exception {
+
+        List<Integer> items = IntStream.range(0, 1000).boxed().toList();
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(new ListItemReader<>(items), 8, stages, true);
+
+        reader.open(new ExecutionContext());
+        List<Integer> read = readAll(reader);
+        reader.close();
+
+        assertThat(read).isEqualTo(items);
+        assertThat(reader.read()).isNull(); // stays at the end
+        assertThat(stages.queued.get()).isZero();
+    }
+
+    @Test
+    void restartSkipsTheItemsHandedToCommittedChunks() throws Exception {
+
+        List<Integer> items = IntStream.range(0, 100).boxed().toList();
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(new ListItemReader<>(items), 8, stages, true);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        reader.open(executionContext);
+        for (int i = 0; i < 30; i++) {
+            reader.read();
+        }
+        reader.update(executionContext); // the reader thread is ahead, only 30 items reached a chunk
+        reader.close();
+
+        ReadAheadItemReader<Integer> restarted = new ReadAheadItemReader<>(new ListItemReader<>(items), 8, stages, true);
+        restarted.open(executionContext);
+        List<Integer> read = readAll(restarted);
+        restarted.close();
+
+        assertThat(read).isEqualTo(items.subList(30, 100));
+    }
+
+    @Test
+    void restartSkipsRecordsNotItemsWhenTheDelegateDropsOthersTheSecondTime() throws Exception {
+
+        List<Integer> records = IntStream.range(0, 100).boxed().toList();
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // first execution, records 10..19 are dropped (unchanged since the previous import)
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(dropping(records, Set.of(10, 11, 12, 13, 14, 15, 16, 17, 18, 19)), 8, stages, true);
+        reader.open(executionContext);
+        for (int i = 0; i < 30; i++) {
+            reader.read(); // 0..9 and 20..39 reach committed chunks
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        // the restart (a delta import) also drops the 30 rows committed by the failed execution
+        Set<Integer> dropped = IntStream.range(0, 40).boxed().collect(Collectors.toSet());
+        ReadAheadItemReader<Integer> restarted = new ReadAheadItemReader<>(dropping(records, dropped), 8, stages, true);
+        restarted.open(executionContext);
+        List<Integer> read = readAll(restarted);
+        restarted.close();
+
+        assertThat(read).isEqualTo(records.subList(40, 100));
+    }
+
+    @Test
+    void readFailureIsThrownToTheChunkAfterTheItemsBeforeIt() throws Exception {
+
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(new ListItemReader<>(List.of(1, 2)) {
+            @Override
+            public Integer read() {
+                Integer item = super.read();
+                if (item == null) {
+                    throw new IllegalStateException("broken line");
+                }
+                return item;
+            }
+        }, 8, stages, true);
+
+        reader.open(new ExecutionContext());
+        assertThat(reader.read()).isEqualTo(1);
+        assertThat(reader.read()).isEqualTo(2);
+        assertThatThrownBy(reader::read).isInstanceOf(IllegalStateException.class).hasMessage("broken line");
+        reader.close();
+    }
+
+    @Test
+    void updateReachesTheDelegateAndMultiThreadedStepsSaveNoPosition() throws Exception {
+
+        AtomicInteger updates = new AtomicInteger();
+        ItemStreamReader<Integer> delegate = new ItemStreamReader<>() {
+
+            private final ListItemReader<Integer> items = new ListItemReader<>(List.of(1, 2, 3));
+
+            @Override
+            public Integer read() {
+                return items.read();
+            }
+
+            @Override
+            public void update(ExecutionContext executionContext) {
+                updates.incrementAndGet(); // FilteringItemStreamReader counts its filtered rows here
+            }
+        };
+
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(delegate, 8, stages, false);
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong("readAhead.position", 2);
+
+        reader.open(executionContext);
+        assertThat(reader.read()).isEqualTo(1); // a saved position is ignored
+        reader.update(executionContext);
+        reader.close();
+
+        assertThat(updates.get()).isEqualTo(1);
+        assertThat(executionContext.getLong("readAhead.position")).isEqualTo(2); // not overwritten
+    }
+
+    private static FilteringItemStreamReader<Integer> dropping(List<Integer> records, Set<Integer> dropped) {
+
+        ListItemReader<Integer> items = new ListItemReader<>(records);
+        return new FilteringItemStreamReader<>(new ItemStreamReader<>() {
+            @Override
+            public Integer read() {
+                Integer record = items.read();
+                if (record != null && dropped.contains(record)) {
+                    return -1; // the dropped marker, like OrganizationLineMapper.FILTERED, the same instance from the Integer cache
+                }
+                return record;
+            }
+        }, -1);
+    }
+
+    private static List<Integer> readAll(ReadAheadItemReader<Integer> reader) throws Exception {
+
+        List<Integer> read = new ArrayList<>();
+        Integer item;
+        while ((item = reader.read()) != null) {
+            read.add(item);
+        }
+
+        return read;
+    }
+}
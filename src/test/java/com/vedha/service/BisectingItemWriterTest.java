@@ -0,0 +1,64 @@
+package com.vedha.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BisectingItemWriterTest {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:bisecting-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE names (name VARCHAR(5) NOT NULL)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void refusedRowsAreIsolatedAndTheOthersAreWrittenInTheSameTransaction() {
+
+        AtomicInteger batches = new AtomicInteger();
+        ItemWriter<String> jdbcWriter = chunk -> {
+            batches.incrementAndGet();
+            jdbcTemplate.batchUpdate("INSERT INTO names (name) VALUES (?)", chunk.getItems().stream().map(name -> new Object[]{name}).toList());
+        };
+
+        List<String> rejected = new ArrayList<>();
+        BisectingItemWriter<String> writer = new BisectingItemWriter<>(jdbcWriter, dataSource, (name, e) -> rejected.add(name));
+
+        List<String> names = new ArrayList<>(IntStream.range(0, 64).mapToObj(i -> "n" + i).toList());
+        names.set(5, "too long");
+        names.set(40, "also too long");
+
+        List<String> accepted = transactionTemplate.execute(status -> {
+            try {
+                return writer.writeAccepted(names);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(rejected).containsExactly("too long", "also too long");
+        assertThat(accepted).hasSize(62).doesNotContain("too long", "also too long");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM names", Integer.class)).isEqualTo(62);
+        assertThat(batches.get()).isLessThan(2 * 2 * 6 + 2); // ~2 batches per level of each bad row, not one per row
+    }
+}
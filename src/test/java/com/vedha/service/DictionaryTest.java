@@ -0,0 +1,47 @@
+package com.vedha.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DictionaryTest {
+
+    @Test
+    void equalValuesShareOneEntryAndNewValuesGetAnId() {
+
+        AtomicInteger ids = new AtomicInteger(100);
+        Dictionary dictionary = new Dictionary(value -> ids.incrementAndGet());
+        dictionary.load(1, "Sri Lanka");
+
+        String line = "1,x,Sri Lanka,Germany,Sri Lanka";
+        Dictionary.Entry loaded = dictionary.lookup(line, 4, 13);
+        Dictionary.Entry added = dictionary.lookup(line, 14, 21);
+
+        assertThat(loaded.id()).isEqualTo(1);
+        assertThat(dictionary.lookup(line, 22, 31)).isSameAs(loaded);
+        assertThat(added.id()).isEqualTo(101);
+        assertThat(dictionary.lookup("Germany").value()).isSameAs(added.value());
+        assertThat(dictionary.value(101)).isEqualTo("Germany");
+        assertThat(dictionary.value(null)).isNull();
+        assertThat(dictionary.find("France")).isNull(); // find does not add
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void growsAndKeepsEveryValue() {
+
+        AtomicInteger ids = new AtomicInteger();
+        Dictionary dictionary = new Dictionary(value -> ids.incrementAndGet());
+
+        for (int i = 0; i < 1000; i++) {
+            dictionary.lookup("Industry " + i);
+        }
+
+        assertThat(dictionary.size()).isEqualTo(1000);
+        assertThat(ids.get()).isEqualTo(1000);
+        assertThat(dictionary.lookup("Industry 500").id()).isEqualTo(501);
+        assertThat(dictionary.lookup("")).isNotNull();
+    }
+}
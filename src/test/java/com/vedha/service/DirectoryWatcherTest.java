@@ -0,0 +1,49 @@
+package com.vedha.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DirectoryWatcherTest {
+
+    @TempDir
+    private Path directory;
+
+    private DirectoryWatcher directoryWatcher;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        directoryWatcher.stop();
+    }
+
+    @Test
+    void filesOfAnUnfinishedBatchAreMovedBackToTheDropDirectoryAtStartup() throws IOException {
+
+        Path batch = Files.createDirectories(directory.resolve("processing").resolve("batch-1"));
+        Files.writeString(batch.resolve("a.csv"), "a");
+        Files.writeString(batch.resolve("b.csv"), "old b");
+        Files.writeString(directory.resolve("b.csv"), "new b");
+
+        start();
+
+        assertThat(directory.resolve("a.csv")).hasContent("a");
+        assertThat(directory.resolve("b.csv")).hasContent("new b");
+        assertThat(directory.resolve("failed").resolve("batch-1").resolve("b.csv")).hasContent("old b");
+        assertThat(batch).doesNotExist();
+    }
+
+    private void start() throws IOException {
+
+        directoryWatcher = new DirectoryWatcher(mock(ApplicationEventPublisher.class), true, directory, Duration.ofMinutes(1));
+        directoryWatcher.start();
+    }
+}
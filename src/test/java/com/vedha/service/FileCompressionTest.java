@@ -0,0 +1,77 @@
+package com.vedha.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileCompressionTest {
+
+    private static final String CSV = "Index,Organization Id,Name\n1,522816eF8fdBE6d,Mckinney PLC\n";
+
+    @Test
+    void magicBytesDecideOverTheContentType() throws IOException {
+
+        assertThat(detect("text/csv", gzip(CSV))).isEqualTo(FileCompression.GZIP);
+        assertThat(detect("application/octet-stream", zip(CSV))).isEqualTo(FileCompression.ZIP);
+        assertThat(detect("application/gzip", CSV.getBytes(StandardCharsets.UTF_8))).isEqualTo(FileCompression.GZIP);
+        assertThat(detect("text/csv", CSV.getBytes(StandardCharsets.UTF_8))).isEqualTo(FileCompression.NONE);
+        assertThat(detect(null, new byte[]{1})).isEqualTo(FileCompression.NONE);
+    }
+
+    @Test
+    void decompressesToTheCsvContent() throws IOException {
+
+        assertThat(read(FileCompression.GZIP, gzip(CSV))).isEqualTo(CSV);
+        assertThat(read(FileCompression.ZIP, zip(CSV))).isEqualTo(CSV);
+        assertThat(read(FileCompression.NONE, CSV.getBytes(StandardCharsets.UTF_8))).isEqualTo(CSV);
+    }
+
+    private static FileCompression detect(String contentType, byte[] content) throws IOException {
+
+        InputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(content));
+        FileCompression compression = FileCompression.detect(contentType, inputStream);
+        assertThat(inputStream.readAllBytes()).isEqualTo(content); // reset to the start
+
+        return compression;
+    }
+
+    private static String read(FileCompression compression, byte[] content) throws IOException {
+        try (InputStream inputStream = compression.decompress(new ByteArrayInputStream(content))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(bytes)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] zip(String content) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream outputStream = new ZipOutputStream(bytes)) {
+            outputStream.putNextEntry(new ZipEntry("csv/"));
+            outputStream.closeEntry();
+            outputStream.putNextEntry(new ZipEntry("csv/organizations.csv"));
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            outputStream.closeEntry();
+        }
+
+        return bytes.toByteArray();
+    }
+}
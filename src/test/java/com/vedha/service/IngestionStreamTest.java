@@ -0,0 +1,50 @@
+package com.vedha.service;
+
+import com.vedha.exception.IngestionStreamStalledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestionStreamTest {
+
+    private static final Duration STALL_TIMEOUT = Duration.ofMillis(200);
+
+    private final IngestionStream stream = new IngestionStream("test", IngestionStream.Format.CSV, "test", 1, new SimpleMeterRegistry().timer("wait"));
+
+    @Test
+    void aQueuedJobDoesNotStallTheStream() throws Exception {
+
+        stream.put("first", STALL_TIMEOUT);
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> put("second"));
+
+        Thread.sleep(3 * STALL_TIMEOUT.toMillis()); // longer than the stall timeout before the step polls
+        assertThat(second).isNotDone();
+
+        assertThat(stream.poll(STALL_TIMEOUT)).isEqualTo("first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void aStartedStepThatTakesNoLineStallsTheStream() throws Exception {
+
+        assertThat(stream.poll(Duration.ofMillis(1))).isNull();
+        stream.put("first", STALL_TIMEOUT);
+
+        assertThatThrownBy(() -> stream.put("second", STALL_TIMEOUT)).isInstanceOf(IngestionStreamStalledException.class);
+    }
+
+    private boolean put(String line) {
+
+        try {
+            return stream.put(line, STALL_TIMEOUT);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
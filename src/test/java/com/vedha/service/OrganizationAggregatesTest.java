@@ -0,0 +1,49 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationAggregatesTest {
+
+    @Test
+    void partialsMergeToTheSameTotalsAsOnePass() {
+
+        OrganizationAggregates onePass = new OrganizationAggregates();
+        OrganizationAggregates first = new OrganizationAggregates();
+        OrganizationAggregates second = new OrganizationAggregates();
+
+        for (int i = 0; i < 10_000; i++) {
+            OrganizationEntity organization = organization(i % 250, i % 90, String.valueOf(1950 + i % 70), (long) i);
+            onePass.add(organization);
+            (i % 3 == 0 ? first : second).add(organization);
+        }
+        first.merge(second);
+
+        assertThat(first.countries().size()).isEqualTo(250);
+        assertThat(first.industries().size()).isEqualTo(90);
+        assertThat(first.foundedDecades().size()).isEqualTo(7);
+        for (int country = 0; country < 250; country++) {
+            assertThat(first.countries().count(country)).isEqualTo(onePass.countries().count(country)).isEqualTo(40);
+            assertThat(first.countries().sum(country)).isEqualTo(onePass.countries().sum(country));
+        }
+        assertThat(first.foundedDecades().count(1980)).isEqualTo(onePass.foundedDecades().count(1980));
+    }
+
+    @Test
+    void missingValuesAreCountedAsUnknown() {
+
+        OrganizationAggregates aggregates = new OrganizationAggregates();
+        aggregates.add(organization(null, null, "n/a", null));
+
+        assertThat(aggregates.countries().count(OrganizationAggregates.UNKNOWN)).isEqualTo(1);
+        assertThat(aggregates.foundedDecades().count(OrganizationAggregates.UNKNOWN)).isEqualTo(1);
+        assertThat(OrganizationAggregates.decade("1988")).isEqualTo(1980);
+        assertThat(OrganizationAggregates.decade("")).isEqualTo(OrganizationAggregates.UNKNOWN);
+    }
+
+    private static OrganizationEntity organization(Integer countryId, Integer industryId, String founded, Long employees) {
+        return OrganizationEntity.builder().countryId(countryId).industryId(industryId).founded(founded).employees(employees).build();
+    }
+}
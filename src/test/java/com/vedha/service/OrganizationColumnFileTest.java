@@ -0,0 +1,56 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationColumnFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void columnsAreReadBackAndDimensionsAreDictionaryEncoded() throws Exception {
+
+        OrganizationLineMapper lineMapper = new OrganizationLineMapper();
+        List<OrganizationEntity> organizations = List.of(
+                lineMapper.mapLine("1,522816eF8fdBE6d,Mckinney PLC,http://soto.com/,Sri Lanka,Synergized global system engine,1988,Dairy,3930", 2),
+                lineMapper.mapLine("2,70C7FBD7e6Aa3Ea,\"Hayes, Ruiz and Sons\",http://harding-duffy.com/,Namibia,Café ☕ adapter,2018,Dairy,7871", 3),
+                lineMapper.mapLine("3,4F9A2b8C1d3E5f7,Schmidt Ltd,http://schmidt.com/,Sri Lanka,,1988,Library,12", 4));
+
+        Path file = directory.resolve("organizations.orgc");
+        try (OrganizationColumnFile.Writer writer = OrganizationColumnFile.writer(file, "hash-1")) {
+            for (OrganizationEntity organization : organizations) {
+                writer.add(organization);
+            }
+        }
+
+        OrganizationColumnFile columns = OrganizationColumnFile.open(file);
+
+        assertThat(columns.rows()).isEqualTo(3);
+        assertThat(columns.employees(1)).isEqualTo(7871L);
+        assertThat(columns.rowHash(2)).isEqualTo(organizations.get(2).getRowHash());
+        assertThat(columns.organizationId(0)).isEqualTo("522816eF8fdBE6d");
+        assertThat(columns.name(1)).isEqualTo("Hayes, Ruiz and Sons");
+        assertThat(columns.website(2)).isEqualTo("http://schmidt.com/");
+        assertThat(columns.description(1)).isEqualTo("Café ☕ adapter");
+        assertThat(columns.description(2)).isEmpty();
+
+        assertThat(columns.countries()).containsExactly("Sri Lanka", "Namibia");
+        assertThat(columns.countryCode(2)).isEqualTo(columns.countryCode(0));
+        assertThat(columns.industries().get(columns.industryCode(1))).isEqualTo("Dairy");
+        assertThat(columns.foundedYears().get(columns.foundedCode(1))).isEqualTo("2018");
+
+        assertThat(OrganizationColumnFile.matches(file, "hash-1")).isTrue();
+        assertThat(OrganizationColumnFile.matches(file, "hash-2")).isFalse(); // the csv changed
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file); // section spills are removed
+        }
+    }
+}
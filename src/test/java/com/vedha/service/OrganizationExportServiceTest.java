@@ -0,0 +1,88 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrganizationExportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final OrganizationExportService exportService = new OrganizationExportService(null, null, Path.of("exports"), 1000);
+
+    @Test
+    void writtenLinesAreReadBackByTheLineMapper() {
+
+        OrganizationEntity organization = organization(7L, "Hayes, \"Ruiz\" and Sons");
+
+        StringWriter writer = new StringWriter();
+        OrganizationExportService.writeLine(writer, organization);
+
+        OrganizationEntity read = new OrganizationLineMapper().mapLine(writer.toString().stripTrailing(), 1);
+        assertThat(read.getName()).isEqualTo("Hayes, \"Ruiz\" and Sons");
+        assertThat(read.getCountry()).isEqualTo("Sri Lanka");
+        assertThat(read.getEmployees()).isEqualTo(3930L);
+    }
+
+    @Test
+    void mergesGzipPartsInPartitionOrder() throws Exception {
+
+        Path output = directory.resolve("organizations.csv.gz");
+        for (int i = 0; i < 12; i++) {
+            try (Writer writer = OrganizationExportService.writer(exportService.part(output, i), true)) {
+                OrganizationExportService.writeLine(writer, organization((long) i, "Organization " + i));
+            }
+        }
+
+        exportService.merge(output, true);
+
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(output)), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+
+        assertThat(lines).hasSize(13);
+        assertThat(lines.get(0)).isEqualTo(OrganizationExportService.HEADER);
+        assertThat(lines.get(12)).startsWith("11,");
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(output);
+        }
+    }
+
+    @Test
+    void fileNamesStayInTheExportDirectory() {
+
+        assertThat(exportService.resolve("organizations.csv")).isEqualTo(Path.of("exports", "organizations.csv"));
+        assertThatThrownBy(() -> exportService.resolve("../organizations.csv")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> exportService.resolve("/tmp/organizations.csv")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static OrganizationEntity organization(Long id, String name) {
+
+        return OrganizationEntity.builder()
+                .id(id)
+                .organizationId("522816eF8fdBE6d")
+                .name(name)
+                .website("http://soto.com/")
+                .country("Sri Lanka")
+                .description("Synergized global system engine")
+                .founded("1988")
+                .industry("Dairy")
+                .employees(3930L)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.vedha.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrganizationFilterTest {
+
+    private static final String LINE = "1,522816eF8fdBE6d,Mckinney PLC,http://soto.com/,Sri Lanka,Synergized global system engine,1988,\"Dairy\",3930";
+
+    @Test
+    void noFilterWithoutConditions() {
+
+        assertThat(OrganizationFilter.of(null, null)).isNull();
+        assertThat(OrganizationFilter.of(" ", null)).isNull();
+    }
+
+    @Test
+    void rowsFailingTheFilterAreNotMapped() {
+
+        assertThat(new OrganizationLineMapper(OrganizationFilter.of(null, 5000L)).mapLine(LINE, 1)).isSameAs(OrganizationLineMapper.FILTERED);
+        assertThat(new OrganizationLineMapper(OrganizationFilter.of(null, 1000L)).mapLine(LINE, 1).getEmployees()).isEqualTo(3930L);
+    }
+
+    @Test
+    void evaluatesAllConditions() {
+
+        assertThat(accepts("employees>=3930;country=Germany|Sri Lanka;industry=Dairy")).isTrue();
+        assertThat(accepts("employees>3930")).isFalse();
+        assertThat(accepts("country!=Sri Lanka")).isFalse();
+        assertThat(accepts("industry!=Library|Law Practice")).isTrue();
+        assertThat(accepts("founded<1990; name=Mckinney PLC")).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+
+        assertThatThrownBy(() -> OrganizationFilter.of("size>10", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OrganizationFilter.of("employees>many", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OrganizationFilter.of("country>Germany", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean accepts(String expression) {
+        return new OrganizationLineMapper(OrganizationFilter.of(expression, null)).mapLine(LINE, 1) != OrganizationLineMapper.FILTERED;
+    }
+}
@@ -0,0 +1,56 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationIdFilterTest {
+
+    private final OrganizationIdFilter organizationIdFilter = new OrganizationIdFilter();
+
+    @Test
+    void dropsOrganizationsAlreadySeenInTheSameJobExecution() {
+
+        List<OrganizationEntity> first = organizationIdFilter.firstOccurrences(1L, List.of(organization("a"), organization("b"), organization("a")));
+        List<OrganizationEntity> second = organizationIdFilter.firstOccurrences(1L, List.of(organization("b"), organization("c"), organization(null)));
+        List<OrganizationEntity> otherJob = organizationIdFilter.firstOccurrences(2L, List.of(organization("a")));
+
+        assertThat(first).extracting(OrganizationEntity::getOrganizationId).containsExactly("a", "b");
+        assertThat(second).extracting(OrganizationEntity::getOrganizationId).containsExactly("c", null);
+        assertThat(otherJob).hasSize(1);
+    }
+
+    @Test
+    void longHashSetGrowsAndKeepsEveryValue() {
+
+        LongHashSet set = new LongHashSet(16);
+
+        LongStream.range(0, 100_000).forEach(value -> assertThat(set.add(value * 31)).isTrue());
+        LongStream.range(0, 100_000).forEach(value -> assertThat(set.add(value * 31)).isFalse());
+
+        assertThat(set.size()).isEqualTo(100_000);
+        assertThat(set.contains(31)).isTrue();
+        assertThat(set.contains(32)).isFalse();
+    }
+
+    @Test
+    void longHashSetRemoveKeepsTheOtherValuesReachable() {
+
+        LongHashSet set = new LongHashSet(16);
+        LongStream.range(0, 10_000).forEach(value -> set.add(value * 16)); // same low bits, long probe sequences
+
+        LongStream.range(0, 10_000).filter(value -> value % 3 == 0).forEach(value -> assertThat(set.remove(value * 16)).isTrue());
+
+        LongStream.range(0, 10_000).forEach(value -> assertThat(set.contains(value * 16)).isEqualTo(value % 3 != 0));
+        assertThat(set.remove(16 * 3)).isFalse();
+        assertThat(set.size()).isEqualTo(10_000 - 3334);
+    }
+
+    private static OrganizationEntity organization(String organizationId) {
+        return OrganizationEntity.builder().organizationId(organizationId).build();
+    }
+}
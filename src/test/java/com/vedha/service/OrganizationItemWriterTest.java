@@ -0,0 +1,89 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class OrganizationItemWriterTest {
+
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+    private final List<OrganizationEntity> written = new ArrayList<>();
+
+    private final OrganizationItemWriter writer = new OrganizationItemWriter(chunk -> written.addAll(chunk.getItems()), stepExecution.getJobExecutionId(), false,
+            mock(OrganizationDictionaries.class), new OrganizationIdFilter(), mock(OrganizationSummaryService.class));
+
+    @BeforeEach
+    void register() {
+        StepSynchronizationManager.register(stepExecution);
+    }
+
+    @AfterEach
+    void close() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void duplicatesAreRemovedFromTheChunkAndCountedAsFiltered() throws Exception {
+
+        Chunk<OrganizationEntity> chunk = Chunk.of(organization("a"), organization("b"), organization("a"));
+        writer.write(chunk);
+
+        Chunk<OrganizationEntity> next = Chunk.of(organization("b"), organization("c"));
+        writer.write(next);
+
+        writer.update(new ExecutionContext());
+
+        assertThat(written).extracting(OrganizationEntity::getOrganizationId).containsExactly("a", "b", "c");
+        assertThat(chunk.getItems()).extracting(OrganizationEntity::getOrganizationId).containsExactly("a", "b");
+        assertThat(next.getItems()).extracting(OrganizationEntity::getOrganizationId).containsExactly("c");
+        assertThat(stepExecution.getFilterCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rowsTheDelegateRejectedAreSkippedAndTheirIdsCanBeWrittenLater() throws Exception {
+
+        OrganizationItemWriter rejectingWriter = new OrganizationItemWriter(chunk -> {
+            for (var iterator = chunk.iterator(); iterator.hasNext(); ) {
+                OrganizationEntity organization = iterator.next();
+                if (organization.getName() != null) {
+                    iterator.remove(); // refused, as BisectingItemWriter does
+                } else {
+                    written.add(organization);
+                }
+            }
+        }, stepExecution.getJobExecutionId(), false, mock(OrganizationDictionaries.class), new OrganizationIdFilter(), mock(OrganizationSummaryService.class));
+
+        OrganizationEntity refused = organization("a");
+        refused.setName("too long");
+        Chunk<OrganizationEntity> chunk = Chunk.of(refused, organization("b"));
+        rejectingWriter.write(chunk);
+
+        Chunk<OrganizationEntity> next = Chunk.of(organization("a"));
+        rejectingWriter.write(next);
+
+        rejectingWriter.update(new ExecutionContext());
+
+        assertThat(chunk.getItems()).extracting(OrganizationEntity::getOrganizationId).containsExactly("b");
+        assertThat(next.getItems()).hasSize(1);
+        assertThat(written).extracting(OrganizationEntity::getOrganizationId).containsExactly("b", "a");
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+        assertThat(stepExecution.getFilterCount()).isZero();
+    }
+
+    private static OrganizationEntity organization(String organizationId) {
+        return OrganizationEntity.builder().organizationId(organizationId).build();
+    }
+}
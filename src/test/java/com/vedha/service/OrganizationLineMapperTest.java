@@ -0,0 +1,62 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.FlatFileFormatException;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrganizationLineMapperTest {
+
+    private final OrganizationLineMapper lineMapper = new OrganizationLineMapper();
+
+    @Test
+    void mapsColumnsByPosition() {
+
+        OrganizationEntity organization = lineMapper.mapLine("1,522816eF8fdBE6d,Mckinney PLC,http://soto.com/,Sri Lanka,Synergized global system engine,1988,Dairy,3930", 2);
+
+        assertThat(organization.getId()).isNull();
+        assertThat(organization.getOrganizationId()).isEqualTo("522816eF8fdBE6d");
+        assertThat(organization.getName()).isEqualTo("Mckinney PLC");
+        assertThat(organization.getWebsite()).isEqualTo("http://soto.com/");
+        assertThat(organization.getCountry()).isEqualTo("Sri Lanka");
+        assertThat(organization.getDescription()).isEqualTo("Synergized global system engine");
+        assertThat(organization.getFounded()).isEqualTo("1988");
+        assertThat(organization.getIndustry()).isEqualTo("Dairy");
+        assertThat(organization.getEmployees()).isEqualTo(3930L);
+    }
+
+    @Test
+    void handlesQuotedFields() {
+
+        OrganizationEntity organization = lineMapper.mapLine("2,\"a,b\",\"Smith, Jones and \"\"Sons\"\"\",,Korea,\"\",2001,\"Law Practice\",\" 42 \"", 3);
+
+        assertThat(organization.getOrganizationId()).isEqualTo("a,b");
+        assertThat(organization.getName()).isEqualTo("Smith, Jones and \"Sons\"");
+        assertThat(organization.getWebsite()).isEmpty();
+        assertThat(organization.getDescription()).isEmpty();
+        assertThat(organization.getIndustry()).isEqualTo("Law Practice");
+        assertThat(organization.getEmployees()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsWrongColumnCount() {
+
+        assertThatThrownBy(() -> lineMapper.mapLine("1,2,3,4,5,6,7,8", 1)).isInstanceOf(IncorrectTokenCountException.class);
+        assertThatThrownBy(() -> lineMapper.mapLine("1,2,3,4,5,6,7,8,9,10", 1)).isInstanceOf(IncorrectTokenCountException.class);
+    }
+
+    @Test
+    void rejectsUnbalancedQuotes() {
+
+        assertThatThrownBy(() -> lineMapper.mapLine("1,2,\"name,4,5,6,7,8,9", 1)).isInstanceOf(FlatFileFormatException.class);
+    }
+
+    @Test
+    void rejectsNonNumericEmployees() {
+
+        assertThatThrownBy(() -> lineMapper.mapLine("1,2,3,4,5,6,7,8,many", 1)).isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.vedha.service;
+
+import com.vedha.service.PartitionQueue.Claim;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionQueueTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PartitionQueue partitionQueue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:partitions-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V11__create_batch_partitions.sql"));
+        }
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        partitionQueue = new PartitionQueue(jdbcTemplate);
+    }
+
+    @Test
+    void everyPartitionIsClaimedOnce() {
+
+        partitionQueue.enqueue(1, "csvImporterStep", List.of(10L, 11L, 12L));
+
+        Optional<Claim> first = partitionQueue.claim("worker-a");
+        Optional<Claim> second = partitionQueue.claim("worker-b");
+        Optional<Claim> third = partitionQueue.claim("worker-a");
+
+        assertThat(first).get().extracting(Claim::stepExecutionId).isEqualTo(10L);
+        assertThat(second).get().extracting(Claim::worker).isEqualTo("worker-b");
+        assertThat(third).get().extracting(Claim::attempts).isEqualTo(1);
+        assertThat(partitionQueue.claim("worker-c")).isEmpty();
+
+        assertThat(partitionQueue.finish(first.get(), PartitionQueue.Status.COMPLETED)).isTrue();
+        assertThat(partitionQueue.claims(1)).filteredOn(Claim::finished).hasSize(1);
+    }
+
+    @Test
+    void stalePartitionsAreRevokedAndQueuedAgain() {
+
+        partitionQueue.enqueue(1, "csvImporterStep", List.of(10L));
+        Claim claim = partitionQueue.claim("worker-a").orElseThrow();
+
+        assertThat(partitionQueue.stale(1, Duration.ofMinutes(1))).isEmpty();
+
+        jdbcTemplate.update("UPDATE batch_partitions SET heartbeat_at = DATEADD('MINUTE', -5, CURRENT_TIMESTAMP)");
+        assertThat(partitionQueue.stale(1, Duration.ofMinutes(1))).hasSize(1);
+        assertThat(partitionQueue.revoke(claim, Duration.ofMinutes(1))).isTrue();
+
+        partitionQueue.requeue(claim, 20L);
+        Claim retry = partitionQueue.claim("worker-b").orElseThrow();
+
+        assertThat(retry.stepExecutionId()).isEqualTo(20L);
+        assertThat(retry.attempts()).isEqualTo(2);
+        assertThat(partitionQueue.finish(claim, PartitionQueue.Status.COMPLETED)).isFalse(); // the lost worker cannot finish it anymore
+    }
+}
@@ -0,0 +1,100 @@
+package com.vedha.service;
+
+import com.vedha.entity.OrganizationEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.io.EOFException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamImportTaskletTest {
+
+    private static final Duration STALL_TIMEOUT = Duration.ofSeconds(5);
+
+    private final IngestionStream stream = new IngestionStream("test", IngestionStream.Format.CSV, "test", 100, new SimpleMeterRegistry().timer("wait"));
+
+    private final List<List<OrganizationEntity>> batches = new ArrayList<>();
+
+    private final StreamImportTasklet tasklet = new StreamImportTasklet(stream, new OrganizationLineMapper(),
+            chunk -> batches.add(List.copyOf(chunk.getItems())), new ResourcelessTransactionManager(), 3, Duration.ofMillis(200));
+
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+    @Test
+    void microBatchesEndAtTheBatchSizeAndAtTheEndOfTheStream() throws Exception {
+
+        for (int i = 0; i < 5; i++) {
+            stream.put(line(i, 100), STALL_TIMEOUT);
+        }
+        stream.end(STALL_TIMEOUT);
+
+        assertThat(execute()).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(execute()).isEqualTo(RepeatStatus.FINISHED);
+
+        assertThat(batches).extracting(List::size).containsExactly(3, 2);
+        assertThat(stepExecution.getReadCount()).isEqualTo(5);
+        assertThat(stepExecution.getWriteCount()).isEqualTo(5);
+    }
+
+    @Test
+    void aSlowStreamIsCommittedAfterTheMaxLatency() throws Exception {
+
+        stream.put(line(0, 100), STALL_TIMEOUT);
+
+        long start = System.nanoTime();
+        assertThat(execute()).isEqualTo(RepeatStatus.CONTINUABLE);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(batches).extracting(List::size).containsExactly(1);
+    }
+
+    @Test
+    void idleCallsWriteNothing() throws Exception {
+
+        assertThat(execute()).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void anAbortedStreamFailsOnceItsLinesAreImported() throws Exception {
+
+        stream.put(line(0, 100), STALL_TIMEOUT);
+        stream.abort(new EOFException("client went away"));
+
+        assertThat(execute()).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(batches).extracting(List::size).containsExactly(1);
+
+        assertThatThrownBy(this::execute).isInstanceOf(IllegalStateException.class).hasMessageContaining("client went away");
+    }
+
+    @Test
+    void putReturnsFalseOnceTheJobHasEnded() throws Exception {
+
+        stream.completion().complete(null);
+
+        assertThat(stream.put(line(0, 100), STALL_TIMEOUT)).isFalse();
+    }
+
+    private RepeatStatus execute() throws Exception {
+
+        StepContribution contribution = new StepContribution(stepExecution);
+        RepeatStatus status = tasklet.execute(contribution, null);
+        stepExecution.apply(contribution);
+
+        return status;
+    }
+
+    private static String line(int index, long employees) {
+        return index + ",id" + index + ",Name " + index + ",http://example.com/,Germany,Description,1999,Dairy," + employees;
+    }
+}